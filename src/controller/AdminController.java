@@ -1,7 +1,6 @@
 package controller;
 
 import java.io.IOException;
-import java.util.List;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -18,7 +17,6 @@ import javafx.scene.control.Label;
 import javafx.scene.control.ListView;
 import javafx.scene.control.TextField;
 import javafx.stage.Stage;
-import model.User;
 import model.UserManager;
 
 /**
@@ -48,6 +46,10 @@ public class AdminController {
     @FXML
     private Button deleteUserButton;
 
+    /** Button to open the search over all users. */
+    @FXML
+    private Button searchAllButton;
+
     /** Button to log out of the admin view. */
     @FXML
     private Button logoutButton;
@@ -86,6 +88,7 @@ public class AdminController {
         // Set up event handlers
         createUserButton.setOnAction(this::handleCreateUser);
         deleteUserButton.setOnAction(this::handleDeleteUser);
+        searchAllButton.setOnAction(this::handleSearchAll);
         logoutButton.setOnAction(this::handleLogout);
 
         // Disable delete button initially
@@ -108,10 +111,7 @@ public class AdminController {
     private void refreshUserList() {
         userList.clear();
 
-        List<User> users = userManager.getAllUsers();
-        for (User user : users) {
-            userList.add(user.getUsername());
-        }
+        userList.addAll(userManager.getUsernames());
     }
 
     /**
@@ -172,6 +172,28 @@ public class AdminController {
         }
     }
 
+    /**
+     * Handles opening the search over every user's photos.
+     * 
+     * @param event The ActionEvent triggered by the search button.
+     */
+    private void handleSearchAll(ActionEvent event) {
+        try {
+            FXMLLoader loader = new FXMLLoader(getClass().getResource("/view/GlobalSearch.fxml"));
+            Parent root = loader.load();
+
+            GlobalSearchController controller = loader.getController();
+            controller.setUserManager(userManager);
+
+            Stage stage = (Stage) searchAllButton.getScene().getWindow();
+            stage.setScene(new Scene(root));
+            stage.setTitle("Photo App - Search All Users");
+        } catch (IOException e) {
+            e.printStackTrace();
+            showAlert("Error", "Failed to load search view.");
+        }
+    }
+
     /**
      * Handles the logout action. Navigates back to the login view.
      * 
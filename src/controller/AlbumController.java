@@ -100,11 +100,9 @@ public class AlbumController {
             return;
         }
 
-        for (Album album : userAlbums) {
-            if (album.getName().equalsIgnoreCase(albumName)) {
-                statusLabel.setText("An album with this name already exists.");
-                return;
-            }
+        if (currentUser.getAlbumByNameIgnoreCase(albumName) != null) {
+            statusLabel.setText("An album with this name already exists.");
+            return;
         }
 
         Album newAlbum = new Album(albumName);
@@ -133,11 +131,10 @@ public class AlbumController {
             return;
         }
 
-        for (Album album : userAlbums) {
-            if (album != selectedAlbum && album.getName().equalsIgnoreCase(newName)) {
-                statusLabel.setText("An album with this name already exists.");
-                return;
-            }
+        Album existing = currentUser.getAlbumByNameIgnoreCase(newName);
+        if (existing != null && existing != selectedAlbum) {
+            statusLabel.setText("An album with this name already exists.");
+            return;
         }
 
         selectedAlbum.setName(newName);
@@ -158,7 +155,6 @@ public class AlbumController {
             return;
         }
 
-        userAlbums.remove(selectedAlbum);
         currentUser.removeAlbum(selectedAlbum);
 
         statusLabel.setText("Album deleted: " + selectedAlbum.getName());
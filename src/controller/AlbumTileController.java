@@ -1,7 +1,5 @@
 package controller;
 
-import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.scene.control.Label;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
@@ -11,7 +9,7 @@ import model.Album;
 import model.Photo;
 
 import java.io.File;
-import java.io.IOException;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
 /**
@@ -21,19 +19,10 @@ import java.time.format.DateTimeFormatter;
  */
 public class AlbumTileController {
 
-    @FXML
     private VBox albumTile;
-
-    @FXML
     private ImageView albumCoverImageView;
-
-    @FXML
     private Label albumNameLabel;
-
-    @FXML
     private Label photoCountLabel;
-
-    @FXML
     private Label dateRangeLabel;
 
     private Album album;
@@ -50,24 +39,26 @@ public class AlbumTileController {
     private static final String SELECTED_STYLE =
         "-fx-border-color: #cc45ff; -fx-border-width: 2; -fx-background-color: #f9eaff;";
 
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+
+    /** Shared cover for albums without photos, loaded once. */
+    private static Image defaultCoverImage;
+
     /**
-     * Constructor that loads the FXML layout and initializes the album tile.
+     * Constructor that builds the album tile and initializes it.
      *
      * @param album The album to display.
      */
     public AlbumTileController(Album album) {
         this.album = album;
 
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/view/AlbumTile.fxml"));
-            loader.setController(this);
-            albumTile = loader.load();
-            configureAlbumTile();
-        } catch (IOException e) {
-            e.printStackTrace();
-            albumTile = new VBox();
-            albumTile.setPrefSize(200, 200);
-        }
+        albumCoverImageView = TileFactory.imageView();
+        albumNameLabel = TileFactory.titleLabel();
+        photoCountLabel = new Label();
+        dateRangeLabel = TileFactory.noteLabel();
+        albumTile = TileFactory.tile(TileFactory.imagePane(albumCoverImageView), albumNameLabel,
+                                     TileFactory.detailRow(photoCountLabel), dateRangeLabel);
+        configureAlbumTile();
     }
 
     /**
@@ -81,10 +72,10 @@ public class AlbumTileController {
         int photoCount = album.getPhotoCount();
         photoCountLabel.setText("Photos: " + photoCount);
 
-        if (photoCount > 0 && album.getEarliestDate() != null && album.getLatestDate() != null) {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM/dd/yyyy");
-            String dateRange = album.getEarliestDate().format(formatter) + " - " +
-                               album.getLatestDate().format(formatter);
+        LocalDateTime earliest = album.getEarliestDate();
+        LocalDateTime latest = album.getLatestDate();
+        if (photoCount > 0 && earliest != null && latest != null) {
+            String dateRange = earliest.format(DATE_FORMAT) + " - " + latest.format(DATE_FORMAT);
             dateRangeLabel.setText("Date range: " + dateRange);
         } else {
             dateRangeLabel.setText("Date range: N/A");
@@ -94,7 +85,8 @@ public class AlbumTileController {
         if (coverPhoto != null) {
             File imageFile = new File(coverPhoto.getFilePath());
             if (imageFile.exists()) {
-                Image image = new Image(imageFile.toURI().toString());
+                // Shared cached thumbnail, decoded at tile size in the background
+                Image image = ImageCache.getInstance().getThumbnail(imageFile, 190);
                 albumCoverImageView.setImage(image);
                 albumCoverImageView.setPreserveRatio(true);
                 albumCoverImageView.setFitWidth(190);
@@ -150,10 +142,10 @@ public class AlbumTileController {
      * Sets a default cover image if the album does not have a cover photo.
      */
     private void setDefaultCoverImage() {
-        Image defaultImage = new Image(getClass().getResourceAsStream("/stock/default_album.png"));
-        if (defaultImage != null) {
-            albumCoverImageView.setImage(defaultImage);
+        if (defaultCoverImage == null) {
+            defaultCoverImage = new Image(getClass().getResourceAsStream("/stock/default_album.png"));
         }
+        albumCoverImageView.setImage(defaultCoverImage);
     }
 
     /**
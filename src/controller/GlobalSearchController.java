@@ -0,0 +1,168 @@
+package controller;
+
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.event.ActionEvent;
+import javafx.fxml.FXML;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TextField;
+import javafx.stage.Stage;
+import model.GlobalSearch;
+import model.Photo;
+import model.PhotoQuery;
+import model.UserManager;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Controller for the admin's search over every user's photos. Queries use
+ * the same language as the user search screen. The search runs in the
+ * background, and the list beside the results shows how many photos each
+ * user matched and how long loading and searching that user took.
+ */
+public class GlobalSearchController {
+
+    @FXML
+    private TextField queryField;
+
+    @FXML
+    private Button searchButton;
+
+    @FXML
+    private Button backButton;
+
+    @FXML
+    private Label statusLabel;
+
+    @FXML
+    private ListView<String> userResultsListView;
+
+    @FXML
+    private PhotoGrid resultsGrid;
+
+    private UserManager userManager;
+
+    private final ObservableList<String> userResults = FXCollections.observableArrayList();
+
+    /**
+     * Initializes the controller.
+     */
+    @FXML
+    public void initialize() {
+        userResultsListView.setItems(userResults);
+        searchButton.setOnAction(this::handleSearch);
+        queryField.setOnAction(this::handleSearch);
+        backButton.setOnAction(this::handleBack);
+        resultsGrid.setOnPhotoDoubleClicked(this::previewPhoto);
+    }
+
+    /**
+     * Sets the user manager for accessing user data.
+     */
+    public void setUserManager(UserManager userManager) {
+        this.userManager = userManager;
+    }
+
+    /**
+     * Handles running the query over all users.
+     */
+    private void handleSearch(ActionEvent event) {
+        String text = queryField.getText().trim();
+        if (text.isEmpty()) {
+            return;
+        }
+
+        PhotoQuery query;
+        try {
+            query = PhotoQuery.parse(text);
+        } catch (IllegalArgumentException e) {
+            statusLabel.setText(e.getMessage());
+            return;
+        }
+
+        setSearching(true);
+        statusLabel.setText("Searching " + userManager.getUsernames().size() + " users...");
+        GlobalSearch.start(userManager, query)
+            .whenComplete((result, error) -> Platform.runLater(() -> {
+                setSearching(false);
+                if (error != null) {
+                    error.printStackTrace();
+                    statusLabel.setText("Search failed.");
+                } else {
+                    displayResults(result);
+                }
+            }));
+    }
+
+    /**
+     * Locks the controls while a search runs. Going back would let the admin
+     * create or delete users, and a deleted user's files may still be being
+     * read by the search.
+     */
+    private void setSearching(boolean searching) {
+        queryField.setDisable(searching);
+        searchButton.setDisable(searching);
+        backButton.setDisable(searching);
+    }
+
+    /**
+     * Displays the merged results and each user's share of them.
+     */
+    private void displayResults(GlobalSearch.Result result) {
+        resultsGrid.setPhotos(result.photos());
+
+        userResults.clear();
+        for (GlobalSearch.UserResult user : result.users()) {
+            userResults.add(String.format("%s: %d photos (load %.1f ms, search %.1f ms)",
+                user.username(), user.photos().size(), user.loadNanos() / 1e6, user.searchNanos() / 1e6));
+        }
+        statusLabel.setText(String.format("%d photos across %d users in %.1f ms.",
+            result.photos().size(), result.users().size(), result.elapsedNanos() / 1e6));
+    }
+
+    /**
+     * Opens a photo preview.
+     */
+    private void previewPhoto(Photo photo) {
+        try {
+            FXMLLoader loader = new FXMLLoader(getClass().getResource("/view/PhotoPreview.fxml"));
+            Parent root = loader.load();
+
+            PhotoPreviewController controller = loader.getController();
+            controller.setPhotos(List.of(photo), 0);
+
+            Stage stage = new Stage();
+            stage.setTitle("Photo Preview");
+            stage.setScene(new Scene(root));
+            stage.show();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Handles back button to return to the admin view.
+     */
+    private void handleBack(ActionEvent event) {
+        try {
+            FXMLLoader loader = new FXMLLoader(getClass().getResource("/view/Admin.fxml"));
+            Scene scene = new Scene(loader.load());
+
+            AdminController adminController = loader.getController();
+            adminController.setUserManager(userManager);
+
+            Stage stage = (Stage) backButton.getScene().getWindow();
+            stage.setScene(scene);
+            stage.setTitle("Photo App - Admin");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package controller;
+
+import javafx.scene.image.Image;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-memory cache of decoded images shared by the photo tiles, album tiles
+ * and the photo preview. Images are keyed by file, last-modified time and
+ * decode size, and the least recently used ones are dropped once the
+ * decoded pixels exceed a byte budget. Used from the JavaFX thread only.
+ */
+public class ImageCache {
+    private static final long MAX_BYTES = 256L * 1024 * 1024;
+
+    private static final ImageCache INSTANCE = new ImageCache(MAX_BYTES);
+
+    private final long maxBytes;
+    private final Map<String, Image> images = new LinkedHashMap<>(16, 0.75f, true); // LRU order
+    private final Map<String, Long> sizes = new LinkedHashMap<>();
+    private long totalBytes;
+
+    /**
+     * Gets the shared image cache.
+     *
+     * @return The image cache.
+     */
+    public static ImageCache getInstance() {
+        return INSTANCE;
+    }
+
+    private ImageCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Gets a thumbnail of an image file, decoded at the given width. Misses
+     * go through the on-disk {@link ThumbnailCache}.
+     *
+     * @param file The image file.
+     * @param width The thumbnail width.
+     * @return The image, which may still be loading in the background.
+     */
+    public Image getThumbnail(File file, int width) {
+        String key = key(file, width, 0);
+        Image image = images.get(key);
+        if (image == null) {
+            image = ThumbnailCache.getInstance().load(file, width);
+            put(key, image);
+        }
+        return image;
+    }
+
+    /**
+     * Gets an image file decoded to fit within a square box, keeping its
+     * aspect ratio. Used for the preview, which never shows photos larger
+     * than that, so a large camera image does not cost its full resolution.
+     *
+     * @param file The image file.
+     * @param size The width and height of the box.
+     * @return The image, which may still be loading in the background.
+     */
+    public Image getFitted(File file, int size) {
+        String key = key(file, size, size);
+        Image image = images.get(key);
+        if (image == null) {
+            image = new Image(file.toURI().toString(), size, size, true, true, true);
+            put(key, image);
+        }
+        return image;
+    }
+
+    /**
+     * Stops decoding an image fetched with {@link #getFitted} if it is still
+     * loading, and drops it from the cache. Loaded images are left alone.
+     *
+     * @param file The image file.
+     * @param size The box size it was requested at.
+     */
+    public void cancelFitted(File file, int size) {
+        String key = key(file, size, size);
+        Image image = images.get(key);
+        if (image != null && image.getProgress() < 1.0) {
+            images.remove(key);
+            image.cancel();
+        }
+    }
+
+    /**
+     * Adds an image to the cache. Its size is counted once it has loaded,
+     * and an image that fails to load is dropped again.
+     */
+    private void put(String key, Image image) {
+        images.put(key, image);
+        if (image.getProgress() >= 1.0) {
+            loaded(key, image);
+            return;
+        }
+        image.progressProperty().addListener((obs, oldVal, newVal) -> {
+            if (newVal.doubleValue() >= 1.0) {
+                loaded(key, image);
+            }
+        });
+    }
+
+    private void loaded(String key, Image image) {
+        if (images.get(key) != image) {
+            return; // evicted or replaced while loading
+        }
+        if (image.isError()) {
+            images.remove(key);
+            return;
+        }
+
+        long bytes = (long) image.getWidth() * (long) image.getHeight() * 4;
+        sizes.put(key, bytes);
+        totalBytes += bytes;
+        evict();
+    }
+
+    /**
+     * Drops least recently used images until the cache fits its budget.
+     */
+    private void evict() {
+        Iterator<Map.Entry<String, Image>> it = images.entrySet().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            String key = it.next().getKey();
+            it.remove();
+            Long bytes = sizes.remove(key);
+            if (bytes != null) {
+                totalBytes -= bytes;
+            }
+        }
+    }
+
+    private static String key(File file, int width, int height) {
+        return file.getAbsolutePath() + '\u0000' + file.lastModified() + '\u0000' + width + 'x' + height;
+    }
+}
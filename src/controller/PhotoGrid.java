@@ -0,0 +1,205 @@
+package controller;
+
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.layout.HBox;
+import model.Photo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Scrollable grid of photo tiles that only builds tiles for the rows on
+ * screen. Each row of the underlying ListView holds as many photos as fit
+ * across, and rows scrolled out of view are reused for the rows scrolled
+ * into view, so a large album costs about one screenful of tiles.
+ * <p>
+ * Photos can also be added a page at a time: the grid reports when the
+ * last rows come into view, so the next page can be fetched on demand.
+ */
+public class PhotoGrid extends ListView<List<Photo>> {
+    private static final double TILE_WIDTH = 200;
+    private static final double GAP = 15;
+    private static final double SCROLLBAR_ALLOWANCE = 20;
+    private static final int NEAR_END_ROWS = 3;
+
+    private final List<Photo> photos = new ArrayList<>();
+    private int columns = 1;
+    private Photo selectedPhoto;
+    private Consumer<Photo> onPhotoClicked;
+    private Consumer<Photo> onPhotoDoubleClicked;
+    private Runnable onNearEnd;
+
+    /**
+     * Creates an empty photo grid.
+     */
+    public PhotoGrid() {
+        setStyle("-fx-background-color: transparent; -fx-background-insets: 0; -fx-padding: 0;");
+        setFocusTraversable(false);
+        setCellFactory(list -> new RowCell());
+        widthProperty().addListener((obs, oldVal, newVal) -> {
+            int fit = (int) ((newVal.doubleValue() - 2 * GAP - SCROLLBAR_ALLOWANCE + GAP) / (TILE_WIDTH + GAP));
+            if (Math.max(1, fit) != columns) {
+                columns = Math.max(1, fit);
+                rebuildRows();
+            }
+        });
+    }
+
+    /**
+     * Shows the given photos in the grid, replacing what was shown before,
+     * and clears the selection.
+     *
+     * @param photos The photos to show, in display order.
+     */
+    public void setPhotos(List<Photo> photos) {
+        this.photos.clear();
+        this.photos.addAll(photos);
+        selectedPhoto = null;
+        rebuildRows();
+    }
+
+    /**
+     * Adds photos after the ones already shown, keeping the selection and
+     * the scroll position.
+     *
+     * @param more The photos to add, in display order.
+     */
+    public void appendPhotos(List<Photo> more) {
+        if (more.isEmpty()) {
+            return;
+        }
+        int firstRow = photos.size() / columns;
+        photos.addAll(more);
+
+        List<List<Photo>> rows = new ArrayList<>();
+        for (int i = firstRow * columns; i < photos.size(); i += columns) {
+            rows.add(new ArrayList<>(photos.subList(i, Math.min(i + columns, photos.size()))));
+        }
+        if (firstRow < getItems().size()) {
+            // The old last row was only partly filled
+            getItems().set(firstRow, rows.remove(0));
+        }
+        getItems().addAll(rows);
+    }
+
+    /**
+     * Gets the photos shown in the grid.
+     *
+     * @return The photos, in display order.
+     */
+    public List<Photo> getPhotos() {
+        return photos;
+    }
+
+    /**
+     * Gets the selected photo.
+     *
+     * @return The selected photo, or null if none is selected.
+     */
+    public Photo getSelectedPhoto() {
+        return selectedPhoto;
+    }
+
+    /**
+     * Selects a photo and highlights its tile.
+     *
+     * @param photo The photo to select, or null to clear the selection.
+     */
+    public void setSelectedPhoto(Photo photo) {
+        selectedPhoto = photo;
+        refresh();
+    }
+
+    /**
+     * Sets the action run when a tile is clicked once.
+     *
+     * @param onPhotoClicked Receives the clicked photo.
+     */
+    public void setOnPhotoClicked(Consumer<Photo> onPhotoClicked) {
+        this.onPhotoClicked = onPhotoClicked;
+    }
+
+    /**
+     * Sets the action run when a tile is double-clicked.
+     *
+     * @param onPhotoDoubleClicked Receives the double-clicked photo.
+     */
+    public void setOnPhotoDoubleClicked(Consumer<Photo> onPhotoDoubleClicked) {
+        this.onPhotoDoubleClicked = onPhotoDoubleClicked;
+    }
+
+    /**
+     * Sets the action run when the last rows of the grid come into view.
+     * It may run several times for the same rows, and runs after the
+     * current layout pass, so it is free to add photos.
+     *
+     * @param onNearEnd The action.
+     */
+    public void setOnNearEnd(Runnable onNearEnd) {
+        this.onNearEnd = onNearEnd;
+    }
+
+    /**
+     * Splits the photos into rows of the current column count.
+     */
+    private void rebuildRows() {
+        List<List<Photo>> rows = new ArrayList<>();
+        for (int i = 0; i < photos.size(); i += columns) {
+            rows.add(new ArrayList<>(photos.subList(i, Math.min(i + columns, photos.size()))));
+        }
+        getItems().setAll(rows);
+    }
+
+    /**
+     * A row of tiles. The tiles are kept and handed new photos whenever the
+     * row is reused.
+     */
+    private class RowCell extends ListCell<List<Photo>> {
+        private final HBox row = new HBox(GAP);
+        private final List<PhotoTileController> tiles = new ArrayList<>();
+
+        RowCell() {
+            row.setPadding(new Insets(GAP / 2, GAP, GAP / 2, GAP));
+            setStyle("-fx-background-color: transparent; -fx-padding: 0;");
+        }
+
+        @Override
+        protected void updateItem(List<Photo> item, boolean empty) {
+            super.updateItem(item, empty);
+            if (empty || item == null) {
+                setGraphic(null);
+                return;
+            }
+
+            while (tiles.size() < item.size()) {
+                PhotoTileController tile = new PhotoTileController();
+                tile.getPhotoTile().setOnMouseClicked(event -> {
+                    Photo photo = tile.getPhoto();
+                    if (event.getClickCount() == 2 && onPhotoDoubleClicked != null) {
+                        onPhotoDoubleClicked.accept(photo);
+                    } else if (onPhotoClicked != null) {
+                        onPhotoClicked.accept(photo);
+                    }
+                });
+                tiles.add(tile);
+            }
+
+            row.getChildren().clear();
+            for (int i = 0; i < item.size(); i++) {
+                PhotoTileController tile = tiles.get(i);
+                tile.setPhoto(item.get(i));
+                tile.setSelected(item.get(i) == selectedPhoto);
+                row.getChildren().add(tile.getPhotoTile());
+            }
+            setGraphic(row);
+
+            if (onNearEnd != null && getIndex() >= getItems().size() - NEAR_END_ROWS) {
+                Platform.runLater(onNearEnd);
+            }
+        }
+    }
+}
@@ -10,8 +10,11 @@ import model.Photo;
 
 import java.io.File;
 import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Controller for the photo preview window.
@@ -41,6 +44,15 @@ public class PhotoPreviewController {
     private List<Photo> photos;
     private int currentIndex = 0;
 
+    /** Photos are decoded to fit this box; the preview never shows them larger. */
+    private static final int PREVIEW_SIZE = 1600;
+
+    /** How many photos on each side of the current one are decoded ahead. */
+    private static final int PREFETCH_DISTANCE = 2;
+
+    /** Files currently being prefetched, so they can be cancelled when no longer near. */
+    private final Set<File> prefetched = new HashSet<>();
+
     /**
      * Initializes the controller by setting up event handlers for navigation buttons.
      */
@@ -59,6 +71,7 @@ public class PhotoPreviewController {
         this.photos = photos;
         this.currentIndex = startIndex;
         displayPhoto(photos.get(currentIndex));
+        prefetchNeighbors();
     }
 
     /**
@@ -69,6 +82,7 @@ public class PhotoPreviewController {
         if (photos == null || photos.isEmpty()) return;
         currentIndex = (currentIndex - 1 + photos.size()) % photos.size(); // wrap around
         displayPhoto(photos.get(currentIndex));
+        prefetchNeighbors();
     }
 
     /**
@@ -79,6 +93,37 @@ public class PhotoPreviewController {
         if (photos == null || photos.isEmpty()) return;
         currentIndex = (currentIndex + 1) % photos.size(); // wrap around
         displayPhoto(photos.get(currentIndex));
+        prefetchNeighbors();
+    }
+
+    /**
+     * Starts decoding the photos within {@link #PREFETCH_DISTANCE} of the
+     * current one in the background, nearest first, so stepping to them
+     * shows them straight away. Prefetches that are no longer near the
+     * current photo are cancelled if they have not finished.
+     */
+    private void prefetchNeighbors() {
+        Set<File> wanted = new LinkedHashSet<>();
+        for (int distance = 1; distance <= PREFETCH_DISTANCE && distance < photos.size(); distance++) {
+            wanted.add(new File(photos.get((currentIndex + distance) % photos.size()).getFilePath()));
+            wanted.add(new File(photos.get((currentIndex - distance + photos.size()) % photos.size()).getFilePath()));
+        }
+        File current = new File(photos.get(currentIndex).getFilePath());
+        wanted.remove(current);
+
+        for (File file : prefetched) {
+            if (!wanted.contains(file) && !file.equals(current)) {
+                ImageCache.getInstance().cancelFitted(file, PREVIEW_SIZE);
+            }
+        }
+        prefetched.clear();
+
+        for (File file : wanted) {
+            if (file.exists()) {
+                ImageCache.getInstance().getFitted(file, PREVIEW_SIZE);
+                prefetched.add(file);
+            }
+        }
     }
 
     /**
@@ -92,7 +137,7 @@ public class PhotoPreviewController {
         // Load and display the image
         File file = new File(photo.getFilePath());
         if (file.exists()) {
-            Image image = new Image(file.toURI().toString());
+            Image image = ImageCache.getInstance().getFitted(file, PREVIEW_SIZE);
             photoImageView.setImage(image);
         } else {
             photoImageView.setImage(null);
@@ -1,16 +1,15 @@
 package controller;
 
-import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
+import javafx.beans.InvalidationListener;
 import javafx.scene.control.Label;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
 import model.Photo;
 
 import java.io.File;
-import java.io.IOException;
 import java.time.format.DateTimeFormatter;
 
 /**
@@ -20,61 +19,96 @@ import java.time.format.DateTimeFormatter;
  */
 public class PhotoTileController {
 
-    @FXML
     private VBox photoTile;
-
-    @FXML
     private ImageView photoImageView;
-
-    @FXML
+    private Label placeholderLabel;
     private Label captionLabel;
-
-    @FXML
     private Label dateLabel;
 
     private Photo photo;
     private boolean selected = false;
 
+    /** Width, in pixels, that thumbnails are decoded at. */
+    private static final int THUMBNAIL_WIDTH = 190;
+
     private static final String DEFAULT_STYLE =
         "-fx-border-color: #dddddd; -fx-border-radius: 5; -fx-background-color: white; " +
         "-fx-effect: dropshadow(gaussian, rgba(0,0,0,0.1), 5, 0, 0, 1); -fx-cursor: hand;";
 
+    private static final String SELECTED_STYLE =
+        "-fx-border-color: #cc45ff; -fx-border-width: 2; -fx-background-color: #f9eaff;";
+
+    /** Keeps the placeholder in step with whichever thumbnail is showing. */
+    private final InvalidationListener imageListener = obs -> updatePlaceholder();
+
     /**
-     * Constructor that loads the FXML layout and initializes the photo tile.
+     * Constructor that builds the tile and initializes it with a photo.
      *
      * @param photo The photo to display in this tile.
      */
     public PhotoTileController(Photo photo) {
-        this.photo = photo;
+        this();
+        setPhoto(photo);
+    }
 
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/view/PhotoTile.fxml"));
-            loader.setController(this);
-            photoTile = loader.load();
-            configurePhotoTile();
-        } catch (IOException e) {
-            e.printStackTrace();
-            photoTile = new VBox();
-        }
+    /**
+     * Constructor that builds the tile without a photo. Used by the photo
+     * grid, which reuses tiles for different photos as it scrolls.
+     */
+    public PhotoTileController() {
+        photoImageView = TileFactory.imageView();
+        placeholderLabel = new Label("Loading...");
+        placeholderLabel.setStyle("-fx-text-fill: #999999; -fx-font-style: italic;");
+        StackPane imagePane = TileFactory.imagePane(photoImageView, placeholderLabel);
+        imagePane.setStyle("-fx-background-color: #f5f5f5;");
+        captionLabel = TileFactory.titleLabel();
+        dateLabel = new Label();
+        photoTile = TileFactory.tile(imagePane, captionLabel, TileFactory.detailRow(dateLabel));
+
+        photoTile.setStyle(DEFAULT_STYLE);
+
+        // Hover effects
+        photoTile.setOnMouseEntered(this::handleMouseEnter);
+        photoTile.setOnMouseExited(this::handleMouseExit);
+    }
+
+    /**
+     * Shows a photo in this tile, replacing whatever it showed before.
+     *
+     * @param photo The photo to display.
+     */
+    public void setPhoto(Photo photo) {
+        this.photo = photo;
+        configurePhotoTile();
     }
 
     /**
-     * Configures the photo tile with the photo's image, caption, and date,
-     * and sets up hover interactivity.
+     * Configures the photo tile with the photo's image, caption, and date.
      */
     private void configurePhotoTile() {
-        photoTile.setStyle(DEFAULT_STYLE);
+        // Set the photo image. The thumbnail is shared through the image
+        // cache and may still be decoding in the background; the
+        // placeholder shows until it is ready.
+        Image previous = photoImageView.getImage();
+        if (previous != null) {
+            previous.progressProperty().removeListener(imageListener);
+            previous.errorProperty().removeListener(imageListener);
+        }
 
-        // Set the photo image
         File file = new File(photo.getFilePath());
         if (file.exists()) {
-            Image img = new Image(file.toURI().toString());
+            Image img = ImageCache.getInstance().getThumbnail(file, THUMBNAIL_WIDTH);
             photoImageView.setImage(img);
-            photoImageView.setFitWidth(190);
+            photoImageView.setFitWidth(THUMBNAIL_WIDTH);
             photoImageView.setPreserveRatio(true);
+            img.progressProperty().addListener(imageListener);
+            img.errorProperty().addListener(imageListener);
+            placeholderLabel.setText("Loading...");
+            updatePlaceholder();
         } else {
-            Image defaultImg = new Image(getClass().getResourceAsStream("/stock/default_photo.png"));
-            photoImageView.setImage(defaultImg);
+            photoImageView.setImage(null);
+            placeholderLabel.setText("Image not found");
+            placeholderLabel.setVisible(true);
         }
 
         // Set the caption
@@ -87,11 +121,23 @@ public class PhotoTileController {
         } else {
             dateLabel.setText("Unknown Date");
         }
+    }
 
-        // Hover effects
-        photoTile.setOnMouseEntered(this::handleMouseEnter);
-        photoTile.setOnMouseExited(this::handleMouseExit);
-        // Selection on click can be added if needed
+    /**
+     * Hides the placeholder once the thumbnail has loaded, or shows an
+     * error message if it could not be loaded.
+     */
+    private void updatePlaceholder() {
+        Image img = photoImageView.getImage();
+        if (img == null) {
+            return;
+        }
+        if (img.isError()) {
+            placeholderLabel.setText("Image unavailable");
+            placeholderLabel.setVisible(true);
+        } else {
+            placeholderLabel.setVisible(img.getProgress() < 1.0);
+        }
     }
 
     /**
@@ -116,6 +162,20 @@ public class PhotoTileController {
         }
     }
 
+    /**
+     * Sets whether this photo tile is selected and updates its visual style.
+     *
+     * @param selected True to mark as selected, false to deselect.
+     */
+    public void setSelected(boolean selected) {
+        this.selected = selected;
+        if (selected) {
+            photoTile.setStyle(SELECTED_STYLE);
+        } else {
+            photoTile.setStyle(DEFAULT_STYLE);
+        }
+    }
+
     /**
      * Returns the VBox node representing this photo tile.
      *
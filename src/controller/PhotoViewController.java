@@ -9,8 +9,6 @@ import javafx.scene.control.*;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.input.MouseEvent;
-import javafx.scene.layout.FlowPane;
-import javafx.scene.layout.VBox;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import model.Album;
@@ -20,7 +18,6 @@ import model.UserManager;
 import java.io.File;
 import java.io.IOException;
 import java.time.LocalDateTime;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -35,9 +32,10 @@ public class PhotoViewController {
     @FXML private TextField renamePhotoTextField;
     @FXML private Button renamePhotoButton;
     @FXML private Button deletePhotoButton;
+    @FXML private Button deleteEverywhereButton;
     @FXML private Label statusLabel;
     @FXML private Label albumTitleLabel;
-    @FXML private FlowPane photoFlowPane;
+    @FXML private PhotoGrid photoGrid;
     @FXML private Button addPhotoButton;
     @FXML private Button backButton;
     @FXML private TextField tagTypeField;
@@ -49,9 +47,6 @@ public class PhotoViewController {
     private Album album;
     private UserManager userManager;
     private Photo selectedPhoto;
-    private VBox selectedPhotoTile;
-
-    private static Map<String, Photo> photoCache = new HashMap<>();
 
     /**
      * Initializes the controller by setting up button actions and disabling buttons initially.
@@ -60,13 +55,21 @@ public class PhotoViewController {
     public void initialize() {
         renamePhotoButton.setDisable(true);
         deletePhotoButton.setDisable(true);
+        deleteEverywhereButton.setDisable(true);
         previewPhotoButton.setDisable(true);
         copyMovePhotoButton.setDisable(true);
 
         renamePhotoButton.setOnAction(this::handleRenamePhoto);
         deletePhotoButton.setOnAction(this::handleDeletePhoto);
+        deleteEverywhereButton.setOnAction(this::handleDeleteFromAllAlbums);
         addTagButton.setOnAction(this::handleAddTag);
         deleteTagButton.setOnAction(this::handleDeleteTag);
+
+        photoGrid.setOnPhotoClicked(this::selectPhoto);
+        TagCompletion.install(tagTypeField, "", prefix ->
+            userManager.getCurrentUser().getTagIndex().suggestTypes(prefix, TagCompletion.LIMIT));
+        TagCompletion.install(tagValueField, "", prefix ->
+            userManager.getCurrentUser().getTagIndex().suggestValues(tagTypeField.getText().trim(), prefix, TagCompletion.LIMIT));
     }
 
     /**
@@ -90,40 +93,27 @@ public class PhotoViewController {
     }
 
     /**
-     * Loads the photos of the album into the view.
+     * Loads the photos of the album into the view. The grid only builds
+     * tiles for the rows on screen.
      */
     private void loadPhotos() {
-        photoFlowPane.getChildren().clear();
         selectedPhoto = null;
-        selectedPhotoTile = null;
-
-        for (Photo photo : album.getPhotos()) {
-            PhotoTileController tileController = new PhotoTileController(photo);
-            VBox photoTile = tileController.getPhotoTile();
-
-            photoTile.setOnMouseClicked(event -> selectPhoto(photo, photoTile));
-            photoFlowPane.getChildren().add(photoTile);
-        }
+        photoGrid.setPhotos(album.getPhotos());
     }
 
     /**
      * Handles selecting a photo.
      *
      * @param photo The selected photo.
-     * @param photoTile The tile representing the selected photo.
      */
-    private void selectPhoto(Photo photo, VBox photoTile) {
-        if (selectedPhotoTile != null) {
-            selectedPhotoTile.setStyle("-fx-border-color: #dddddd; -fx-border-radius: 5; -fx-background-color: white; " +
-                                       "-fx-effect: dropshadow(gaussian, rgba(0,0,0,0.1), 5, 0, 0, 1); -fx-cursor: hand;");
-        }
-
+    private void selectPhoto(Photo photo) {
         selectedPhoto = photo;
-        selectedPhotoTile = photoTile;
+        photoGrid.setSelectedPhoto(photo);
 
         previewPhotoButton.setDisable(false);
         renamePhotoButton.setDisable(false);
         deletePhotoButton.setDisable(false);
+        deleteEverywhereButton.setDisable(false);
         copyMovePhotoButton.setDisable(false);
 
         renamePhotoTextField.setText(photo.getCaption() == null ? "" : photo.getCaption());
@@ -243,18 +233,20 @@ public class PhotoViewController {
 
             CopyMovePhotoPopupController popupController = loader.getController();
 
+            // Albums already holding the photo, looked up from the photo itself
+            List<Album> containing = userManager.getCurrentUser().getAlbumsContaining(selectedPhoto);
             List<Album> targetAlbums = userManager.getCurrentUser().getAlbums().stream()
-                .filter(a -> !a.equals(album))
-                .filter(a -> !a.getPhotos().contains(selectedPhoto))
+                .filter(a -> a != album && !containing.contains(a))
                 .toList();
 
             popupController.setAlbums(targetAlbums);
 
             popupController.setOnConfirm((targetAlbum, isMove) -> {
-                targetAlbum.addPhoto(selectedPhoto);
                 if (isMove) {
-                    album.removePhoto(selectedPhoto);
+                    userManager.getCurrentUser().movePhoto(selectedPhoto, album, targetAlbum);
                     loadPhotos();
+                } else {
+                    targetAlbum.addPhoto(selectedPhoto);
                 }
                 statusLabel.setText(isMove ? "Photo moved to: " + targetAlbum.getName()
                                            : "Photo copied to: " + targetAlbum.getName());
@@ -304,32 +296,39 @@ public class PhotoViewController {
         }
 
         album.removePhoto(selectedPhoto);
+        int remaining = userManager.getCurrentUser().getAlbumsContaining(selectedPhoto).size();
         selectedPhoto = null;
-        selectedPhotoTile = null;
 
         renamePhotoButton.setDisable(true);
         deletePhotoButton.setDisable(true);
+        deleteEverywhereButton.setDisable(true);
 
-        statusLabel.setText("Photo deleted.");
+        statusLabel.setText(remaining == 0 ? "Photo deleted."
+                                           : "Photo deleted. It is still in " + remaining + " other album(s).");
         loadPhotos();
         userManager.saveUsers();
     }
 
     /**
-     * Finds an existing photo with the given file path.
-     *
-     * @param path The file path to search for.
-     * @return The matching Photo, or null if not found.
+     * Deletes the selected photo from every album that holds it.
      */
-    private Photo findExistingPhoto(String path) {
-        for (Album a : userManager.getCurrentUser().getAlbums()) {
-            for (Photo p : a.getPhotos()) {
-                if (p.getFilePath().equals(path)) {
-                    return p;
-                }
-            }
+    @FXML
+    private void handleDeleteFromAllAlbums(ActionEvent event) {
+        if (selectedPhoto == null) {
+            statusLabel.setText("No photo selected.");
+            return;
         }
-        return null;
+
+        int count = userManager.getCurrentUser().removePhotoFromAllAlbums(selectedPhoto);
+        selectedPhoto = null;
+
+        renamePhotoButton.setDisable(true);
+        deletePhotoButton.setDisable(true);
+        deleteEverywhereButton.setDisable(true);
+
+        statusLabel.setText("Photo deleted from " + count + " album(s).");
+        loadPhotos();
+        userManager.saveUsers();
     }
 
     /**
@@ -347,7 +346,7 @@ public class PhotoViewController {
 
         if (selectedFile != null) {
             String path = selectedFile.getAbsolutePath();
-            Photo existingPhoto = findExistingPhoto(path);
+            Photo existingPhoto = userManager.getCurrentUser().findPhoto(path);
             Photo photo = (existingPhoto != null) ? existingPhoto : new Photo(path, LocalDateTime.now());
 
             if (!album.getPhotos().contains(photo)) {
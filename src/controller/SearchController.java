@@ -1,25 +1,28 @@
 package controller;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.DatePicker;
+import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
-import javafx.scene.layout.FlowPane;
-import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 import javafx.event.ActionEvent;
-import model.Album;
 import model.Photo;
+import model.PhotoQuery;
+import model.TagIndex;
 import model.UserManager;
 
 import java.io.IOException;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class SearchController {
 
@@ -42,10 +45,25 @@ public class SearchController {
     private Button backButton;
 
     @FXML
-    private FlowPane resultsFlowPane;
+    private Label statusLabel;
+
+    @FXML
+    private PhotoGrid resultsGrid;
 
     private UserManager userManager;
 
+    // Pages are read off the FX thread, one at a time; a newer search cancels the current cursor
+    private static final ExecutorService SEARCHER = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "photo-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final int PAGE_SIZE = 120;
+
+    private PhotoQuery query;
+    private PhotoQuery.Cursor cursor;
+    private boolean fetching;
+
     /**
      * Initializes the controller.
      */
@@ -54,6 +72,9 @@ public class SearchController {
         searchByDateButton.setOnAction(this::handleSearchByDate);
         searchByTagButton.setOnAction(this::handleSearchByTag);
         backButton.setOnAction(this::handleBack);
+        resultsGrid.setOnPhotoDoubleClicked(this::previewPhoto);
+        resultsGrid.setOnNearEnd(this::fetchPage);
+        TagCompletion.install(tagSearchField, " (", this::suggestTerms);
     }
 
     /**
@@ -61,10 +82,18 @@ public class SearchController {
      */
     public void setUserManager(UserManager userManager) {
         this.userManager = userManager;
+
+        // The last search is shown again; results are cached until the library changes
+        String lastQuery = userManager.getLastQuery();
+        if (lastQuery != null) {
+            tagSearchField.setText(lastQuery);
+            startSearch(PhotoQuery.parse(lastQuery));
+        }
     }
 
     /**
-     * Handles searching photos by date range.
+     * Handles searching photos by date range, as a date query over the
+     * user's date index.
      */
     private void handleSearchByDate(ActionEvent event) {
         LocalDate startDate = startDatePicker.getValue();
@@ -74,132 +103,119 @@ public class SearchController {
             return; // require both dates
         }
 
-        List<Photo> matchingPhotos = new ArrayList<>();
-        for (Album album : userManager.getCurrentUser().getAlbums()) {
-            for (Photo photo : album.getPhotos()) {
-                LocalDate photoDate = photo.getDateTime().toLocalDate();
-                if ((photoDate.isEqual(startDate) || photoDate.isAfter(startDate)) &&
-                    (photoDate.isEqual(endDate) || photoDate.isBefore(endDate))) {
-                    if (!matchingPhotos.contains(photo)) {
-                        matchingPhotos.add(photo);
-                    }
-                }
-            }
-        }
-
-        displayResults(matchingPhotos);
+        startSearch(PhotoQuery.parse("date:" + startDate + ".." + endDate));
     }
 
     /**
-     * Handles searching photos by tag.
+     * Handles the query search. The query is parsed into a
+     * {@link PhotoQuery}, which looks terms up in the user's indexes; a
+     * malformed query is reported instead of searched.
      */
     private void handleSearchByTag(ActionEvent event) {
-        String query = tagSearchField.getText().trim();
-        if (query.isEmpty()) {
+        String text = tagSearchField.getText().trim();
+        if (text.isEmpty()) {
             return;
         }
 
-        List<Photo> matchingPhotos = new ArrayList<>();
-
-        if (query.contains(" AND ")) {
-            String[] parts = query.split(" AND ");
-            if (parts.length != 2) return;
-            String[] first = parts[0].split("=");
-            String[] second = parts[1].split("=");
-
-            if (first.length != 2 || second.length != 2) return;
-
-            String tag1Type = first[0].trim();
-            String tag1Value = first[1].trim();
-            String tag2Type = second[0].trim();
-            String tag2Value = second[1].trim();
-
-            for (Album album : userManager.getCurrentUser().getAlbums()) {
-                for (Photo photo : album.getPhotos()) {
-                    Map<String, String> tags = photo.getTags();
-                    if (tagMatches(tags, tag1Type, tag1Value) && tagMatches(tags, tag2Type, tag2Value)) {
-                        if (!matchingPhotos.contains(photo)) {
-                            matchingPhotos.add(photo);
-                        }
-                    }
-                }
-            }
-        } else if (query.contains(" OR ")) {
-            String[] parts = query.split(" OR ");
-            if (parts.length != 2) return;
-            String[] first = parts[0].split("=");
-            String[] second = parts[1].split("=");
-
-            if (first.length != 2 || second.length != 2) return;
-
-            String tag1Type = first[0].trim();
-            String tag1Value = first[1].trim();
-            String tag2Type = second[0].trim();
-            String tag2Value = second[1].trim();
-
-            for (Album album : userManager.getCurrentUser().getAlbums()) {
-                for (Photo photo : album.getPhotos()) {
-                    Map<String, String> tags = photo.getTags();
-                    if (tagMatches(tags, tag1Type, tag1Value) || tagMatches(tags, tag2Type, tag2Value)) {
-                        if (!matchingPhotos.contains(photo)) {
-                            matchingPhotos.add(photo);
-                        }
-                    }
-                }
-            }
-        } else {
-            // Single tag-value
-            String[] parts = query.split("=");
-            if (parts.length != 2) return;
-
-            String tagType = parts[0].trim();
-            String tagValue = parts[1].trim();
-
-            for (Album album : userManager.getCurrentUser().getAlbums()) {
-                for (Photo photo : album.getPhotos()) {
-                    Map<String, String> tags = photo.getTags();
-                    if (tagMatches(tags, tagType, tagValue)) {
-                        if (!matchingPhotos.contains(photo)) {
-                            matchingPhotos.add(photo);
-                        }
-                    }
-                }
-            }
+        PhotoQuery query;
+        try {
+            query = PhotoQuery.parse(text);
+        } catch (IllegalArgumentException e) {
+            statusLabel.setText(e.getMessage());
+            return;
         }
 
-        displayResults(matchingPhotos);
+        startSearch(query);
     }
 
     /**
-     * Helper: Checks if a photo's tags match a type-value pair.
+     * Starts showing the results of a query, cancelling the search before
+     * it. The first page is fetched straight away and later pages as the
+     * grid is scrolled near its end. A query run before, since the library
+     * last changed, reads its results back from the user's search cache.
      */
-    private boolean tagMatches(Map<String, String> tags, String type, String value) {
-        for (Map.Entry<String, String> entry : tags.entrySet()) {
-            if (entry.getKey().equalsIgnoreCase(type) && entry.getValue().equalsIgnoreCase(value)) {
-                return true;
-            }
+    private void startSearch(PhotoQuery query) {
+        userManager.setLastQuery(query.toString());
+        this.query = query;
+        if (cursor != null) {
+            cursor.cancel();
         }
-        return false;
+        cursor = query.open(userManager.getCurrentUser());
+        fetching = false;
+        resultsGrid.setPhotos(List.of());
+        statusLabel.setText("Searching...");
+        fetchPage();
     }
 
     /**
-     * Displays the matching photos in the results pane.
+     * Reads the next page of the current search in the background and
+     * adds it to the grid, unless a page is already on its way or a newer
+     * search has started by the time it is ready.
      */
-    private void displayResults(List<Photo> photos) {
-        resultsFlowPane.getChildren().clear();
-
-        for (Photo photo : photos) {
-            PhotoTileController tileController = new PhotoTileController(photo);
-            VBox photoTile = tileController.getPhotoTile();
-
-            photoTile.setOnMouseClicked(event -> {
-                if (event.getClickCount() == 2) {
-                    previewPhoto(photo);
+    private void fetchPage() {
+        PhotoQuery.Cursor current = cursor;
+        if (current == null || current.isDone() || fetching) {
+            return;
+        }
+        fetching = true;
+        SEARCHER.execute(() -> {
+            List<Photo> page;
+            try {
+                page = current.next(PAGE_SIZE);
+            } catch (RuntimeException e) {
+                // A change to the library restarts the search; anything else ends it
+                if (!(e instanceof ConcurrentModificationException)) {
+                    e.printStackTrace();
+                }
+                Platform.runLater(() -> {
+                    if (current != cursor) {
+                        return;
+                    }
+                    if (e instanceof ConcurrentModificationException) {
+                        startSearch(query); // the library changed; show the search as it is now
+                        return;
+                    }
+                    cursor = null;
+                    fetching = false;
+                    statusLabel.setText("Search failed.");
+                });
+                return;
+            }
+            Platform.runLater(() -> {
+                if (current != cursor) {
+                    return;
+                }
+                fetching = false;
+                resultsGrid.appendPhotos(page);
+                int shown = resultsGrid.getPhotos().size();
+                if (current.isDone()) {
+                    statusLabel.setText(shown == 1 ? "1 photo found." : shown + " photos found.");
+                } else {
+                    statusLabel.setText(shown + " photos so far; scroll for more.");
                 }
             });
+        });
+    }
 
-            resultsFlowPane.getChildren().add(photoTile);
+    /**
+     * Suggests tag terms for the word being typed into the query: tag
+     * types until an = is typed, then values of that type.
+     */
+    private List<String> suggestTerms(String word) {
+        TagIndex tagIndex = userManager.getCurrentUser().getTagIndex();
+        List<String> terms = new ArrayList<>();
+        int eq = word.indexOf('=');
+        if (eq < 0) {
+            for (String tagType : tagIndex.suggestTypes(word, TagCompletion.LIMIT)) {
+                terms.add(tagType + "=");
+            }
+        } else {
+            String tagType = word.substring(0, eq);
+            for (String tagValue : tagIndex.suggestValues(tagType, word.substring(eq + 1), TagCompletion.LIMIT)) {
+                terms.add(tagType + "=" + tagValue);
+            }
         }
+        return terms;
     }
 
     /**
@@ -229,6 +245,9 @@ public class SearchController {
      * Handles back button to return to Albums view.
      */
     private void handleBack(ActionEvent event) {
+        if (cursor != null) {
+            cursor.cancel();
+        }
         try {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/view/Albums.fxml"));
             Scene scene = new Scene(loader.load());
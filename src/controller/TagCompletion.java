@@ -0,0 +1,98 @@
+package controller;
+
+import javafx.geometry.Side;
+import javafx.scene.control.ContextMenu;
+import javafx.scene.control.MenuItem;
+import javafx.scene.control.TextField;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Drop-down suggestions for a text field, offered for the word being typed
+ * at the end of the field. Choosing a suggestion replaces that word.
+ * Suggestions come from the user's tag index, so looking them up on every
+ * keystroke is cheap.
+ */
+class TagCompletion {
+    /**
+     * The most suggestions shown at once.
+     */
+    static final int LIMIT = 8;
+
+    private final TextField field;
+    private final String separators;
+    private final Function<String, List<String>> suggestions;
+    private final ContextMenu popup = new ContextMenu();
+    private boolean completing;
+
+    private TagCompletion(TextField field, String separators, Function<String, List<String>> suggestions) {
+        this.field = field;
+        this.separators = separators;
+        this.suggestions = suggestions;
+    }
+
+    /**
+     * Adds suggestions to a text field.
+     *
+     * @param field The text field.
+     * @param separators The characters that end a word; with none, the
+     *        whole field is a single word.
+     * @param suggestions Gives the suggestions for a partly typed word; each
+     *        suggestion is the full text that replaces the word.
+     */
+    static void install(TextField field, String separators, Function<String, List<String>> suggestions) {
+        TagCompletion completion = new TagCompletion(field, separators, suggestions);
+        field.textProperty().addListener((obs, oldText, newText) -> completion.update(newText));
+        field.focusedProperty().addListener((obs, wasFocused, focused) -> {
+            if (!focused) {
+                completion.popup.hide();
+            }
+        });
+    }
+
+    private void update(String text) {
+        if (completing || !field.isFocused()) {
+            return;
+        }
+        int start = wordStart(text);
+        String word = text.substring(start);
+        List<String> matches = word.isEmpty() ? List.of() : suggestions.apply(word);
+        if (matches.isEmpty() || matches.size() == 1 && matches.get(0).equals(word)) {
+            popup.hide();
+            return;
+        }
+
+        List<MenuItem> items = new ArrayList<>();
+        for (String match : matches) {
+            MenuItem item = new MenuItem(match);
+            item.setMnemonicParsing(false);
+            item.setOnAction(e -> complete(start, match));
+            items.add(item);
+        }
+        popup.getItems().setAll(items);
+        if (!popup.isShowing()) {
+            popup.show(field, Side.BOTTOM, 0, 0);
+        }
+    }
+
+    private void complete(int start, String match) {
+        completing = true;
+        try {
+            String text = field.getText();
+            field.setText(text.substring(0, Math.min(start, text.length())) + match);
+            field.positionCaret(field.getText().length());
+        } finally {
+            completing = false;
+        }
+    }
+
+    private int wordStart(String text) {
+        int start = text.length();
+        while (start > 0 && separators.indexOf(text.charAt(start - 1)) < 0) {
+            start--;
+        }
+        return start;
+    }
+}
@@ -0,0 +1,182 @@
+package controller;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * On-disk cache of pre-scaled thumbnails, kept in a directory next to the
+ * data directory. Entries are keyed by the original file's path, the
+ * requested width, and the file's size and last-modified time, so an edited
+ * image gets a fresh thumbnail. The cache is capped in size and evicts the
+ * least recently used thumbnails first.
+ */
+public class ThumbnailCache {
+    private static final File CACHE_DIR = new File("thumbnails");
+    private static final long MAX_BYTES = 64L * 1024 * 1024;
+
+    private static final ThumbnailCache INSTANCE = new ThumbnailCache(CACHE_DIR, MAX_BYTES);
+
+    private final File dir;
+    private final long maxBytes;
+    private final Map<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true); // file name -> bytes, LRU order
+    private long totalBytes;
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "thumbnail-cache");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Gets the shared thumbnail cache.
+     *
+     * @return The thumbnail cache.
+     */
+    public static ThumbnailCache getInstance() {
+        return INSTANCE;
+    }
+
+    private ThumbnailCache(File dir, long maxBytes) {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+
+        File[] files = dir.listFiles((d, name) -> name.endsWith(".jpg"));
+        if (files != null) {
+            // Oldest first, so the least recently used entries are evicted first
+            Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+            for (File file : files) {
+                entries.put(file.getName(), file.length());
+                totalBytes += file.length();
+            }
+        }
+    }
+
+    /**
+     * Loads a thumbnail of an image file in the background. A cached
+     * thumbnail is used when there is one; otherwise the original is decoded
+     * at the requested width and the result is written to the cache once it
+     * has loaded.
+     *
+     * @param file The original image file.
+     * @param width The width to decode the thumbnail at.
+     * @return The thumbnail image, which may still be loading.
+     */
+    public Image load(File file, int width) {
+        String name = entryName(file, width);
+        File cached = new File(dir, name);
+
+        synchronized (this) {
+            if (entries.get(name) != null && cached.exists()) {
+                writer.execute(() -> cached.setLastModified(System.currentTimeMillis()));
+                return new Image(cached.toURI().toString(), true);
+            }
+        }
+
+        Image image = new Image(file.toURI().toString(), width, 0, true, true, true);
+        image.progressProperty().addListener((obs, oldVal, newVal) -> {
+            if (newVal.doubleValue() >= 1.0 && !image.isError()) {
+                store(name, image);
+            }
+        });
+        return image;
+    }
+
+    /**
+     * Copies a loaded thumbnail's pixels and writes them to the cache on the
+     * writer thread.
+     */
+    private void store(String name, Image image) {
+        int w = (int) image.getWidth();
+        int h = (int) image.getHeight();
+        if (w <= 0 || h <= 0 || image.getPixelReader() == null) {
+            return;
+        }
+
+        int[] argb = new int[w * h];
+        image.getPixelReader().getPixels(0, 0, w, h, PixelFormat.getIntArgbInstance(), argb, 0, w);
+        writer.execute(() -> write(name, w, h, argb));
+    }
+
+    /**
+     * Encodes the pixels as a JPEG, flattening transparency onto white the
+     * way tiles display it, then records the entry and evicts if needed.
+     */
+    private void write(String name, int w, int h, int[] argb) {
+        BufferedImage rgb = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        for (int i = 0; i < argb.length; i++) {
+            int a = argb[i] >>> 24;
+            int r = ((argb[i] >> 16 & 0xff) * a + 0xff * (255 - a)) / 255;
+            int g = ((argb[i] >> 8 & 0xff) * a + 0xff * (255 - a)) / 255;
+            int b = ((argb[i] & 0xff) * a + 0xff * (255 - a)) / 255;
+            argb[i] = r << 16 | g << 8 | b;
+        }
+        rgb.setRGB(0, 0, w, h, argb, 0, w);
+
+        File target = new File(dir, name);
+        File tmp = new File(dir, name + ".tmp");
+        try {
+            dir.mkdirs();
+            if (!ImageIO.write(rgb, "jpg", tmp)) {
+                return;
+            }
+            Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            e.printStackTrace();
+            tmp.delete();
+            return;
+        }
+
+        synchronized (this) {
+            Long previous = entries.put(name, target.length());
+            totalBytes += target.length() - (previous == null ? 0 : previous);
+            evict();
+        }
+    }
+
+    /**
+     * Deletes least recently used thumbnails until the cache fits its cap.
+     */
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> it = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, Long> eldest = it.next();
+            new File(dir, eldest.getKey()).delete();
+            totalBytes -= eldest.getValue();
+            it.remove();
+        }
+    }
+
+    /**
+     * Builds the cache file name for an image file at a given width.
+     */
+    private static String entryName(File file, int width) {
+        String key = file.getAbsolutePath() + '\u0000' + width + '\u0000' + file.length() + '\u0000' + file.lastModified();
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder();
+            for (byte b : digest) {
+                name.append(String.format("%02x", b));
+            }
+            return name.append(".jpg").toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
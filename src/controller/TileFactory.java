@@ -0,0 +1,113 @@
+package controller;
+
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.control.Label;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.TextAlignment;
+
+/**
+ * Builds the node graphs for photo and album tiles in code. Tiles are
+ * created by the hundred when albums and search results are shown, and
+ * building them directly avoids parsing an FXML file for every tile.
+ */
+class TileFactory {
+    private static final double TILE_SIZE = 200;
+    private static final double IMAGE_HEIGHT = 150;
+
+    private static final Font TITLE_FONT = Font.font("System", FontWeight.BOLD, 14);
+    private static final Font DETAIL_FONT = Font.font(12);
+    private static final Font NOTE_FONT = Font.font(11);
+
+    private TileFactory() {
+    }
+
+    /**
+     * Creates the outer box of a tile.
+     *
+     * @param children The tile's contents, top to bottom.
+     * @return The tile box.
+     */
+    static VBox tile(Node... children) {
+        VBox tile = new VBox(children);
+        tile.setAlignment(Pos.TOP_CENTER);
+        tile.setPrefSize(TILE_SIZE, TILE_SIZE);
+        tile.setPadding(new Insets(5));
+        return tile;
+    }
+
+    /**
+     * Creates the image view shown at the top of a tile.
+     *
+     * @return The image view.
+     */
+    static ImageView imageView() {
+        ImageView imageView = new ImageView();
+        imageView.setFitWidth(TILE_SIZE);
+        imageView.setFitHeight(IMAGE_HEIGHT);
+        imageView.setPickOnBounds(true);
+        imageView.setPreserveRatio(true);
+        return imageView;
+    }
+
+    /**
+     * Creates the fixed-size area that holds a tile's image.
+     *
+     * @param children The image view and anything layered over it.
+     * @return The image area.
+     */
+    static StackPane imagePane(Node... children) {
+        StackPane pane = new StackPane(children);
+        pane.setPrefSize(TILE_SIZE, IMAGE_HEIGHT);
+        return pane;
+    }
+
+    /**
+     * Creates the bold label naming a tile.
+     *
+     * @return The title label.
+     */
+    static Label titleLabel() {
+        Label label = new Label();
+        label.setWrapText(true);
+        label.setFont(TITLE_FONT);
+        label.setStyle("-fx-font-weight: bold;");
+        VBox.setMargin(label, new Insets(5, 0, 0, 0));
+        return label;
+    }
+
+    /**
+     * Styles a detail label and centers it in its own row under the title.
+     *
+     * @param label The detail label.
+     * @return The row holding the label.
+     */
+    static HBox detailRow(Label label) {
+        label.setFont(DETAIL_FONT);
+        HBox row = new HBox(5, label);
+        row.setAlignment(Pos.CENTER);
+        VBox.setMargin(row, new Insets(2, 0, 0, 0));
+        return row;
+    }
+
+    /**
+     * Creates the small italic note label at the bottom of album tiles.
+     *
+     * @return The note label.
+     */
+    static Label noteLabel() {
+        Label label = new Label();
+        label.setTextAlignment(TextAlignment.CENTER);
+        label.setWrapText(true);
+        label.setFont(NOTE_FONT);
+        label.setStyle("-fx-font-style: italic; -fx-text-fill: #666666;");
+        VBox.setMargin(label, new Insets(2, 0, 5, 0));
+        return label;
+    }
+}
@@ -1,8 +1,13 @@
 package model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -11,8 +16,18 @@ import java.util.List;
 public class Album implements Serializable {
     private static final long serialVersionUID = 1L;
     
+    // Serialized form, kept compatible with data written when photos were an ArrayList
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("name", String.class),
+        new ObjectStreamField("photos", List.class)
+    };
+    
     private String name;
-    private List<Photo> photos;
+    private PhotoList photos;
+    private transient User owner;
+    private transient Photo earliest; // photo with the earliest date, valid while datesKnown
+    private transient Photo latest;
+    private transient boolean datesKnown;
     
     /**
      * Creates a new album with the specified name.
@@ -21,7 +36,7 @@ public class Album implements Serializable {
      */
     public Album(String name) {
         this.name = name;
-        this.photos = new ArrayList<>();
+        this.photos = new PhotoList();
     }
     
     /**
@@ -39,31 +54,69 @@ public class Album implements Serializable {
      * @param name The new album name.
      */
     public void setName(String name) {
+        String oldName = this.name;
         this.name = name;
+        if (owner != null) {
+            owner.albumRenamed(this, oldName);
+        }
+        Journal journal = journal();
+        if (journal != null) {
+            journal.renameAlbum(owner.getUsername(), oldName, name);
+        }
     }
     
     /**
-     * Gets the list of photos in this album.
+     * Gets the list of photos in this album, in the order they were added.
+     * The list is read-only and reflects later changes to the album;
+     * {@code contains} and {@code indexOf} take constant time.
      * 
      * @return The list of photos.
      */
     public List<Photo> getPhotos() {
-        return photos;
+        return Collections.unmodifiableList(photos);
     }
     
+    /**
+     * Gets the photo shown on this album's tile, which is its first photo.
+     * 
+     * @return The cover photo, or null if the album is empty.
+     */
     public Photo getCoverPhoto() {
         if (photos.isEmpty()) {
             return null;
         }
         return photos.get(0);
     }
+    
     /**
-     * Adds a photo to this album.
+     * Adds a photo to this album. Adding a photo the album already holds
+     * does nothing.
      * 
      * @param photo The photo to add.
      */
     public void addPhoto(Photo photo) {
-        photos.add(photo);
+        if (!photos.append(photo)) {
+            return;
+        }
+        if (datesKnown) {
+            if (photo.compareDateTime(earliest) < 0) {
+                earliest = photo;
+            }
+            if (photo.compareDateTime(latest) > 0) {
+                latest = photo;
+            }
+        }
+        if (owner != null) {
+            photo.setOwner(owner);
+        }
+        LibraryIndex index = index();
+        if (index != null) {
+            index.photoAdded(this, photo);
+        }
+        Journal journal = journal();
+        if (journal != null) {
+            journal.addPhoto(owner.getUsername(), name, photo);
+        }
     }
     
     /**
@@ -73,7 +126,19 @@ public class Album implements Serializable {
      * @return true if the photo was removed, false otherwise.
      */
     public boolean removePhoto(Photo photo) {
-        return photos.remove(photo);
+        boolean removed = photos.delete(photo);
+        if (removed && datesKnown && (photo.equals(earliest) || photo.equals(latest))) {
+            datesKnown = false; // recomputed when next asked for
+        }
+        LibraryIndex index = index();
+        if (removed && index != null) {
+            index.photoRemoved(this, photo);
+        }
+        Journal journal = journal();
+        if (removed && journal != null) {
+            journal.removePhoto(owner.getUsername(), name, photo.getFilePath());
+        }
+        return removed;
     }
     
     /**
@@ -86,7 +151,9 @@ public class Album implements Serializable {
     }
     
     /**
-     * Gets the earliest date among all photos in this album.
+     * Gets the earliest date among all photos in this album. The earliest
+     * and latest photos are tracked as photos come and go, so this only
+     * scans the album after one of them has been removed.
      * 
      * @return The earliest date, or null if the album is empty.
      */
@@ -94,14 +161,8 @@ public class Album implements Serializable {
         if (photos.isEmpty()) {
             return null;
         }
-        
-        LocalDateTime earliest = photos.get(0).getDateTime();
-        for (Photo photo : photos) {
-            if (photo.getDateTime().isBefore(earliest)) {
-                earliest = photo.getDateTime();
-            }
-        }
-        return earliest;
+        findDateRange();
+        return earliest.getDateTime();
     }
     
     /**
@@ -113,14 +174,66 @@ public class Album implements Serializable {
         if (photos.isEmpty()) {
             return null;
         }
-        
-        LocalDateTime latest = photos.get(0).getDateTime();
+        findDateRange();
+        return latest.getDateTime();
+    }
+    
+    /**
+     * Finds the earliest and latest photos if they are not known. Must only
+     * be called on a non-empty album.
+     */
+    private void findDateRange() {
+        if (datesKnown) {
+            return;
+        }
+        earliest = photos.get(0);
+        latest = photos.get(0);
         for (Photo photo : photos) {
-            if (photo.getDateTime().isAfter(latest)) {
-                latest = photo.getDateTime();
+            if (photo.compareDateTime(earliest) < 0) {
+                earliest = photo;
+            }
+            if (photo.compareDateTime(latest) > 0) {
+                latest = photo;
             }
         }
-        return latest;
+        datesKnown = true;
+    }
+    
+    /**
+     * Sets the user that owns this album and its photos.
+     * 
+     * @param owner The owning user.
+     */
+    void setOwner(User owner) {
+        this.owner = owner;
+        for (Photo photo : photos) {
+            photo.setOwner(owner);
+        }
+    }
+    
+    private Journal journal() {
+        return owner == null ? null : owner.getJournal();
+    }
+    
+    private LibraryIndex index() {
+        return owner == null ? null : owner.indexIfBuilt();
+    }
+    
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("name", name);
+        fields.put("photos", new ArrayList<>(photos));
+        out.writeFields();
+    }
+    
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        name = (String) fields.get("name", null);
+        photos = new PhotoList();
+        for (Photo photo : (List<Photo>) fields.get("photos", null)) {
+            photos.append(photo);
+        }
     }
     
     @Override
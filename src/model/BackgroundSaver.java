@@ -0,0 +1,88 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes journal records to disk on a background thread. Edits only mark
+ * their journal dirty, and every dirty journal is written together a short
+ * while later, so a burst of edits costs one write instead of one per edit
+ * and the JavaFX thread never waits on the disk.
+ */
+class BackgroundSaver {
+    private static final long DELAY_MILLIS = 500;
+
+    private static final BackgroundSaver INSTANCE = new BackgroundSaver();
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "background-saver");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Object writing = new Object();
+    private final Set<Journal> dirty = new LinkedHashSet<>();
+    private ScheduledFuture<?> scheduled;
+
+    /**
+     * Gets the shared background saver.
+     *
+     * @return The background saver.
+     */
+    static BackgroundSaver getInstance() {
+        return INSTANCE;
+    }
+
+    private BackgroundSaver() {
+    }
+
+    /**
+     * Marks a journal as having records to write, and schedules a write if
+     * none is pending yet.
+     *
+     * @param journal The journal to write.
+     */
+    synchronized void markDirty(Journal journal) {
+        dirty.add(journal);
+        if (scheduled == null) {
+            scheduled = executor.schedule(this::writeDirty, DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Writes every dirty journal now, on the calling thread. Used on logout
+     * and application exit so no edit is left waiting in memory.
+     */
+    void flush() {
+        synchronized (this) {
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+        }
+        writeDirty();
+    }
+
+    /**
+     * Writes the journals marked dirty so far. Journals marked while this is
+     * running are picked up by the next scheduled write. Only one write runs
+     * at a time, so a flush also waits for a background write in progress.
+     */
+    private void writeDirty() {
+        synchronized (writing) {
+            List<Journal> journals;
+            synchronized (this) {
+                journals = new ArrayList<>(dirty);
+                dirty.clear();
+                scheduled = null;
+            }
+            for (Journal journal : journals) {
+                journal.flush();
+            }
+        }
+    }
+}
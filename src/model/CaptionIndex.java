@@ -0,0 +1,132 @@
+package model;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Trigram index over photo captions. Every run of three characters in a
+ * caption, ignoring case, maps to the photos whose caption contains it,
+ * so a substring search only has to check the photos sharing the rarest
+ * of the search text's trigrams rather than every caption. Words shorter
+ * than three characters have no trigram and are checked against every
+ * captioned photo.
+ */
+class CaptionIndex {
+    private final Map<Long, Set<Photo>> postings = new HashMap<>();
+    private final Set<Photo> captioned = new HashSet<>();
+
+    /**
+     * Adds a photo's caption to the index.
+     *
+     * @param photo The photo.
+     * @param caption Its caption, or null.
+     */
+    void add(Photo photo, String caption) {
+        if (caption == null || caption.isEmpty()) {
+            return;
+        }
+        captioned.add(photo);
+        for (long trigram : trigrams(fold(caption))) {
+            postings.computeIfAbsent(trigram, k -> new HashSet<>()).add(photo);
+        }
+    }
+
+    /**
+     * Removes a photo's caption from the index.
+     *
+     * @param photo The photo.
+     * @param caption The caption it was indexed with, or null.
+     */
+    void remove(Photo photo, String caption) {
+        if (caption == null || caption.isEmpty()) {
+            return;
+        }
+        captioned.remove(photo);
+        for (long trigram : trigrams(fold(caption))) {
+            Set<Photo> photos = postings.get(trigram);
+            if (photos != null) {
+                photos.remove(photo);
+                if (photos.isEmpty()) {
+                    postings.remove(trigram);
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the photos that may contain every one of the given words: the
+     * photos sharing the rarest trigram of any word. Every photo whose
+     * caption does contain the words is included, but the caller must
+     * check each one with {@link #matches}.
+     *
+     * @param words The search words, folded with {@link #fold}.
+     * @return The candidate photos, read-only.
+     */
+    Collection<Photo> candidates(String[] words) {
+        Set<Photo> best = captioned;
+        for (String word : words) {
+            for (int i = 0; i + 3 <= word.length(); i++) {
+                Set<Photo> photos = postings.get(trigram(word, i));
+                if (photos == null) {
+                    return Collections.emptySet();
+                }
+                if (photos.size() < best.size()) {
+                    best = photos;
+                }
+            }
+        }
+        return Collections.unmodifiableSet(best);
+    }
+
+    /**
+     * Checks whether a caption contains every one of the given words,
+     * ignoring case.
+     *
+     * @param caption The caption, or null.
+     * @param words The search words, folded with {@link #fold}.
+     * @return true if the caption contains every word.
+     */
+    static boolean matches(String caption, String[] words) {
+        if (caption == null) {
+            return false;
+        }
+        String folded = fold(caption);
+        for (String word : words) {
+            if (!folded.contains(word)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Lower-cases text one character at a time, so positions in the
+     * folded text line up with the original.
+     *
+     * @param text The text.
+     * @return The folded text.
+     */
+    static String fold(String text) {
+        char[] chars = text.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    private static Set<Long> trigrams(String folded) {
+        Set<Long> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= folded.length(); i++) {
+            trigrams.add(trigram(folded, i));
+        }
+        return trigrams;
+    }
+
+    private static long trigram(String folded, int i) {
+        return (long) folded.charAt(i) << 32 | (long) folded.charAt(i + 1) << 16 | folded.charAt(i + 2);
+    }
+}
@@ -0,0 +1,142 @@
+package model;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+/**
+ * Index of photos ordered by the date and time they were taken, so that
+ * date range searches only touch the photos inside the range.
+ * <p>
+ * Photos are grouped by the epoch second they were taken, read straight
+ * from the photo's stored date, and each group is kept in order of the
+ * nanoseconds within that second. Photos taken at the same instant stay
+ * in the order they were added.
+ */
+public class DateIndex {
+    private final TreeMap<Long, List<Photo>> photosBySecond = new TreeMap<>();
+
+    /**
+     * Adds a photo to the index.
+     *
+     * @param photo The photo to add.
+     */
+    void add(Photo photo) {
+        List<Photo> photos = photosBySecond.computeIfAbsent(photo.getEpochSecond(), k -> new ArrayList<>(1));
+        int i = photos.size();
+        while (i > 0 && photos.get(i - 1).getNano() > photo.getNano()) {
+            i--;
+        }
+        photos.add(i, photo);
+    }
+
+    /**
+     * Removes a photo from the index.
+     *
+     * @param photo The photo to remove.
+     */
+    void remove(Photo photo) {
+        List<Photo> photos = photosBySecond.get(photo.getEpochSecond());
+        if (photos != null) {
+            photos.remove(photo);
+            if (photos.isEmpty()) {
+                photosBySecond.remove(photo.getEpochSecond());
+            }
+        }
+    }
+
+    /**
+     * Finds the photos taken in a range of times, oldest first.
+     *
+     * @param from The start of the range, inclusive, or null for no lower bound.
+     * @param to The end of the range, exclusive, or null for no upper bound.
+     * @return The matching photos.
+     */
+    List<Photo> findRange(LocalDateTime from, LocalDateTime to) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            return new ArrayList<>();
+        }
+        // The seconds holding the bounds are included whole, then trimmed by nanosecond
+        Map<Long, List<Photo>> range = photosBySecond;
+        long fromSecond = from == null ? Long.MIN_VALUE : from.toEpochSecond(ZoneOffset.UTC);
+        long toSecond = to == null ? Long.MAX_VALUE : to.toEpochSecond(ZoneOffset.UTC);
+        if (from != null && to != null) {
+            range = photosBySecond.subMap(fromSecond, true, toSecond, true);
+        } else if (from != null) {
+            range = photosBySecond.tailMap(fromSecond, true);
+        } else if (to != null) {
+            range = photosBySecond.headMap(toSecond, true);
+        }
+
+        List<Photo> result = new ArrayList<>();
+        for (Map.Entry<Long, List<Photo>> entry : range.entrySet()) {
+            long second = entry.getKey();
+            if (second != fromSecond && second != toSecond) {
+                result.addAll(entry.getValue());
+                continue;
+            }
+            for (Photo photo : entry.getValue()) {
+                boolean afterFrom = from == null || second != fromSecond || photo.getNano() >= from.getNano();
+                boolean beforeTo = to == null || second != toSecond || photo.getNano() < to.getNano();
+                if (afterFrom && beforeTo) {
+                    result.add(photo);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Estimates the share of the photos taken in a range of times, assuming
+     * they are spread evenly between the oldest and the newest photo.
+     *
+     * @param from The start of the range, inclusive, or null for no lower bound.
+     * @param to The end of the range, exclusive, or null for no upper bound.
+     * @return The estimated share, from 0 to 1.
+     */
+    double share(LocalDateTime from, LocalDateTime to) {
+        if (photosBySecond.isEmpty()) {
+            return 0;
+        }
+        long first = photosBySecond.firstKey();
+        long last = photosBySecond.lastKey() + 1;
+        long start = from == null ? first : Math.max(first, from.toEpochSecond(ZoneOffset.UTC));
+        long end = to == null ? last : Math.min(last, to.toEpochSecond(ZoneOffset.UTC));
+        return end <= start ? 0 : (double) (end - start) / (last - first);
+    }
+
+    /**
+     * Walks every photo in the index, oldest first, without copying them.
+     * The index must not change while the walk is in progress.
+     *
+     * @return An iterator over the photos.
+     */
+    Iterator<Photo> iterator() {
+        Iterator<List<Photo>> dates = photosBySecond.values().iterator();
+        return new Iterator<>() {
+            private Iterator<Photo> photos = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!photos.hasNext() && dates.hasNext()) {
+                    photos = dates.next().iterator();
+                }
+                return photos.hasNext();
+            }
+
+            @Override
+            public Photo next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return photos.next();
+            }
+        };
+    }
+}
@@ -0,0 +1,125 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs a query over every user's library, for the admin. Each user is
+ * loaded and searched as a separate task on a small pool of threads kept
+ * for this, one per core, so reading shards from disk is spread over the
+ * cores without tying up the common fork-join pool.
+ * <p>
+ * The shards to search are taken from the user manager up front, so the
+ * threads never read its user map. Users are independent of each other
+ * and each one is only touched by the thread searching it, so no locking
+ * is needed beyond what loading a shard already does. A shard that was not
+ * in memory before the search is dropped again once it has been searched,
+ * so searching every user never holds more of them than there are threads.
+ */
+public class GlobalSearch {
+    private static final ExecutorService SEARCHERS = Executors.newFixedThreadPool(
+        Runtime.getRuntime().availableProcessors(), r -> {
+            Thread thread = new Thread(r, "global-search");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    /**
+     * The outcome of searching one user.
+     *
+     * @param username The user's name.
+     * @param photos The user's matching photos, oldest first.
+     * @param loadNanos Time spent getting the user, including reading the
+     *        shard if it was not in memory yet.
+     * @param searchNanos Time spent running the query.
+     */
+    public record UserResult(String username, List<Photo> photos, long loadNanos, long searchNanos) {
+    }
+
+    /**
+     * The outcome of searching every user.
+     *
+     * @param photos The matching photos of all users, oldest first. A file
+     *        matched in several users' libraries appears once.
+     * @param users The result for each user, in the order users were created.
+     * @param elapsedNanos Wall-clock time for the whole search.
+     */
+    public record Result(List<Photo> photos, List<UserResult> users, long elapsedNanos) {
+    }
+
+    private GlobalSearch() {
+    }
+
+    /**
+     * Searches every user's library, waiting for the result.
+     *
+     * @param userManager The user manager holding the users.
+     * @param query The query to run.
+     * @return The merged and per-user results.
+     * @throws java.util.concurrent.CompletionException If searching a user failed.
+     */
+    public static Result run(UserManager userManager, PhotoQuery query) {
+        return start(userManager, query).join();
+    }
+
+    /**
+     * Starts searching every user's library. No thread waits for the
+     * search; the result is put together by whichever search thread
+     * finishes last.
+     *
+     * @param userManager The user manager holding the users.
+     * @param query The query to run.
+     * @return The merged and per-user results, once every user is searched.
+     */
+    public static CompletableFuture<Result> start(UserManager userManager, PhotoQuery query) {
+        long start = System.nanoTime();
+        List<CompletableFuture<UserResult>> searches = new ArrayList<>();
+        for (Map.Entry<String, UserShard> shard : userManager.getShards().entrySet()) {
+            searches.add(CompletableFuture.supplyAsync(
+                () -> search(shard.getKey(), shard.getValue(), query), SEARCHERS));
+        }
+
+        return CompletableFuture.allOf(searches.toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+            List<UserResult> users = new ArrayList<>();
+            Set<Photo> merged = new LinkedHashSet<>(); // photos are equal when their paths are
+            for (CompletableFuture<UserResult> search : searches) {
+                UserResult user = search.join();
+                if (user != null) {
+                    users.add(user);
+                    merged.addAll(user.photos());
+                }
+            }
+            List<Photo> photos = new ArrayList<>(merged);
+            photos.sort(Photo::compareDateTime);
+            return new Result(photos, users, System.nanoTime() - start);
+        });
+    }
+
+    /**
+     * Loads and searches one user, dropping the user from memory again
+     * afterwards unless it was already loaded.
+     */
+    private static UserResult search(String username, UserShard shard, PhotoQuery query) {
+        long start = System.nanoTime();
+        boolean wasLoaded = shard.isLoaded();
+        User user = shard.load();
+        if (user == null) {
+            return null;
+        }
+        try {
+            long loaded = System.nanoTime();
+            List<Photo> photos = query.search(user);
+            return new UserResult(username, photos, loaded - start, System.nanoTime() - loaded);
+        } finally {
+            if (!wasLoaded) {
+                shard.unload(UserManager.COMPACT_THRESHOLD);
+            }
+        }
+    }
+}
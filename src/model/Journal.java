@@ -0,0 +1,485 @@
+package model;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only log of small mutation records for the Photo App.
+ * Each edit appends one record, so saving costs the same no matter how
+ * large the library is. On startup the log is replayed on top of the
+ * last snapshot written by {@link UserManager}.
+ * <p>
+ * Records are buffered in memory as edits are made and written to the file
+ * by {@link #flush()}, which may run on the background saver thread while
+ * the JavaFX thread keeps appending.
+ * <p>
+ * Each record is encoded on its own before it joins the buffer, so an edit
+ * that cannot be recorded leaves nothing behind. Strings are written with
+ * {@link DataOutputStream#writeUTF}, except in records holding a string too
+ * long for it, which are marked as wide and write every string as an int
+ * length followed by UTF-8 bytes.
+ */
+public class Journal {
+    private static final int MAGIC = 0x50484A4C; // "PHJL"
+
+    private static final byte ADD_ALBUM = 3;
+    private static final byte RENAME_ALBUM = 4;
+    private static final byte DELETE_ALBUM = 5;
+    private static final byte ADD_PHOTO = 6;
+    private static final byte REMOVE_PHOTO = 7;
+    private static final byte MOVE_PHOTO = 8;
+    private static final byte SET_CAPTION = 9;
+    private static final byte PUT_TAG = 10;
+    private static final byte REMOVE_TAG = 11;
+    private static final byte CLEAR_CAPTION = 12;
+
+    private static final byte WIDE = (byte) 0x80; // flag on records whose strings have int lengths
+    private static final int MAX_UTF_LENGTH = 65535;
+
+    private final File file;
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream record = new ByteArrayOutputStream(); // the record being encoded
+    private final DataOutputStream out = new DataOutputStream(record);
+    private final Object writeLock = new Object();
+    private FileOutputStream fileOut;
+    private long written;
+    private boolean closed;
+
+    private Journal(File file, long written) throws IOException {
+        this.file = file;
+        this.written = written;
+        this.fileOut = new FileOutputStream(file, true);
+    }
+
+    /**
+     * Opens the journal file, replaying any records that belong to the given
+     * snapshot generation into the list of users. Records from an older
+     * generation are discarded, and a torn record at the end of the file is
+     * cut off so new records can be appended safely.
+     *
+     * @param file The journal file.
+     * @param generation The generation of the snapshot that was loaded.
+     * @param users The users loaded from the snapshot.
+     * @return The opened journal, ready for appending.
+     * @throws IOException If the journal file cannot be read or written.
+     */
+    public static Journal open(File file, long generation, List<User> users) throws IOException {
+        long validLength = 0;
+        if (file.exists() && file.length() > 0) {
+            byte[] data = Files.readAllBytes(file.toPath());
+            validLength = replay(data, generation, users);
+        }
+
+        if (validLength == 0) {
+            try (DataOutputStream header = new DataOutputStream(new FileOutputStream(file))) {
+                header.writeInt(MAGIC);
+                header.writeLong(generation);
+            }
+            validLength = file.length();
+        } else if (validLength < file.length()) {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(validLength);
+            }
+        }
+        return new Journal(file, validLength);
+    }
+
+    /**
+     * Replays the records in the given journal contents.
+     *
+     * @return The number of bytes holding complete records, or 0 if the
+     *         journal does not match the snapshot generation.
+     */
+    private static long replay(byte[] data, long generation, List<User> users) {
+        ByteArrayInputStream bytes = new ByteArrayInputStream(data);
+        DataInputStream in = new DataInputStream(bytes);
+        try {
+            if (in.readInt() != MAGIC || in.readLong() != generation) {
+                return 0;
+            }
+        } catch (IOException e) {
+            return 0;
+        }
+
+        Map<String, User> byName = new HashMap<>();
+        for (User user : users) {
+            byName.put(user.getUsername(), user);
+        }
+
+        long validLength = data.length - bytes.available();
+        try {
+            while (bytes.available() > 0) {
+                apply(in, users, byName);
+                validLength = data.length - bytes.available();
+            }
+        } catch (IOException e) {
+            // Torn record at the end of the log; everything before it is kept.
+        }
+        return validLength;
+    }
+
+    /**
+     * Reads one record and applies it to the users. Records that refer to a
+     * user, album or photo that no longer exists are read and ignored.
+     */
+    private static void apply(DataInputStream in, List<User> users, Map<String, User> byName) throws IOException {
+        byte op = in.readByte();
+        boolean wide = (op & WIDE) != 0;
+        op &= ~WIDE;
+        String username = readString(in, wide);
+        User user = byName.get(username);
+
+        switch (op) {
+            case ADD_ALBUM -> {
+                String albumName = readString(in, wide);
+                if (user != null && !user.hasAlbumWithName(albumName)) {
+                    user.addAlbum(new Album(albumName));
+                }
+            }
+            case RENAME_ALBUM -> {
+                String oldName = readString(in, wide);
+                String newName = readString(in, wide);
+                Album album = user == null ? null : user.getAlbumByName(oldName);
+                if (album != null) {
+                    album.setName(newName);
+                }
+            }
+            case DELETE_ALBUM -> {
+                String albumName = readString(in, wide);
+                Album album = user == null ? null : user.getAlbumByName(albumName);
+                if (album != null) {
+                    user.removeAlbum(album);
+                }
+            }
+            case ADD_PHOTO -> {
+                String albumName = readString(in, wide);
+                String path = readString(in, wide);
+                LocalDateTime dateTime = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+                Album album = user == null ? null : user.getAlbumByName(albumName);
+                if (album != null) {
+                    Photo photo = user.findPhoto(path);
+                    if (photo == null) {
+                        photo = new Photo(path, dateTime);
+                    }
+                    if (!album.getPhotos().contains(photo)) {
+                        album.addPhoto(photo);
+                    }
+                }
+            }
+            case REMOVE_PHOTO -> {
+                String albumName = readString(in, wide);
+                String path = readString(in, wide);
+                Album album = user == null ? null : user.getAlbumByName(albumName);
+                Photo photo = user == null ? null : user.findPhoto(path);
+                if (album != null && photo != null) {
+                    album.removePhoto(photo);
+                }
+            }
+            case MOVE_PHOTO -> {
+                String fromName = readString(in, wide);
+                String toName = readString(in, wide);
+                String path = readString(in, wide);
+                Album from = user == null ? null : user.getAlbumByName(fromName);
+                Album to = user == null ? null : user.getAlbumByName(toName);
+                Photo photo = user == null ? null : user.findPhoto(path);
+                if (from != null && to != null && photo != null) {
+                    if (!to.getPhotos().contains(photo)) {
+                        to.addPhoto(photo);
+                    }
+                    from.removePhoto(photo);
+                }
+            }
+            case SET_CAPTION -> {
+                String path = readString(in, wide);
+                String caption = readString(in, wide);
+                Photo photo = user == null ? null : user.findPhoto(path);
+                if (photo != null) {
+                    photo.setCaption(caption);
+                }
+            }
+            case PUT_TAG -> {
+                String path = readString(in, wide);
+                String tagType = readString(in, wide);
+                String tagValue = readString(in, wide);
+                Photo photo = user == null ? null : user.findPhoto(path);
+                if (photo != null) {
+                    photo.addTag(tagType, tagValue);
+                }
+            }
+            case CLEAR_CAPTION -> {
+                String path = readString(in, wide);
+                Photo photo = user == null ? null : user.findPhoto(path);
+                if (photo != null) {
+                    photo.setCaption(null);
+                }
+            }
+            case REMOVE_TAG -> {
+                String path = readString(in, wide);
+                String tagType = readString(in, wide);
+                Photo photo = user == null ? null : user.findPhoto(path);
+                if (photo != null) {
+                    photo.removeTag(tagType);
+                }
+            }
+            default -> throw new IOException("Unknown journal record: " + op);
+        }
+    }
+
+    /**
+     * Records that an album was added to a user.
+     *
+     * @param username The owning user's name.
+     * @param albumName The new album's name.
+     */
+    public void addAlbum(String username, String albumName) {
+        append(ADD_ALBUM, username, albumName);
+    }
+
+    /**
+     * Records that an album was renamed.
+     *
+     * @param username The owning user's name.
+     * @param oldName The previous album name.
+     * @param newName The new album name.
+     */
+    public void renameAlbum(String username, String oldName, String newName) {
+        append(RENAME_ALBUM, username, oldName, newName);
+    }
+
+    /**
+     * Records that an album was deleted.
+     *
+     * @param username The owning user's name.
+     * @param albumName The deleted album's name.
+     */
+    public void deleteAlbum(String username, String albumName) {
+        append(DELETE_ALBUM, username, albumName);
+    }
+
+    /**
+     * Records that a photo was added to an album.
+     *
+     * @param username The owning user's name.
+     * @param albumName The album the photo was added to.
+     * @param photo The photo that was added.
+     */
+    public synchronized void addPhoto(String username, String albumName, Photo photo) {
+        try {
+            encode(ADD_PHOTO, username, albumName, photo.getFilePath());
+            out.writeLong(photo.getEpochSecond());
+            out.writeInt(photo.getNano());
+            record.writeTo(pending);
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Records that a photo was removed from an album.
+     *
+     * @param username The owning user's name.
+     * @param albumName The album the photo was removed from.
+     * @param filePath The photo's file path.
+     */
+    public void removePhoto(String username, String albumName, String filePath) {
+        append(REMOVE_PHOTO, username, albumName, filePath);
+    }
+
+    /**
+     * Records that a photo was moved from one album to another.
+     *
+     * @param username The owning user's name.
+     * @param fromAlbum The album the photo was moved out of.
+     * @param toAlbum The album the photo was moved into.
+     * @param filePath The photo's file path.
+     */
+    public void movePhoto(String username, String fromAlbum, String toAlbum, String filePath) {
+        append(MOVE_PHOTO, username, fromAlbum, toAlbum, filePath);
+    }
+
+    /**
+     * Records a caption change.
+     *
+     * @param username The owning user's name.
+     * @param filePath The photo's file path.
+     * @param caption The new caption, or null to clear it.
+     */
+    public void setCaption(String username, String filePath, String caption) {
+        if (caption == null) {
+            append(CLEAR_CAPTION, username, filePath);
+        } else {
+            append(SET_CAPTION, username, filePath, caption);
+        }
+    }
+
+    /**
+     * Records that a tag was added or replaced.
+     *
+     * @param username The owning user's name.
+     * @param filePath The photo's file path.
+     * @param tagType The tag type.
+     * @param tagValue The tag value.
+     */
+    public void putTag(String username, String filePath, String tagType, String tagValue) {
+        append(PUT_TAG, username, filePath, tagType, tagValue);
+    }
+
+    /**
+     * Records that a tag was removed.
+     *
+     * @param username The owning user's name.
+     * @param filePath The photo's file path.
+     * @param tagType The tag type that was removed.
+     */
+    public void removeTag(String username, String filePath, String tagType) {
+        append(REMOVE_TAG, username, filePath, tagType);
+    }
+
+    /**
+     * Writes buffered records through to the journal file. Appending can
+     * continue on other threads while the write is in progress.
+     */
+    public void flush() {
+        synchronized (writeLock) {
+            byte[] records;
+            synchronized (this) {
+                if (closed || pending.size() == 0) {
+                    return;
+                }
+                records = pending.toByteArray();
+                pending.reset();
+            }
+            try {
+                fileOut.write(records);
+                written += records.length;
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Gets the current size of the journal, including buffered records.
+     *
+     * @return The journal size in bytes.
+     */
+    public long size() {
+        synchronized (writeLock) {
+            synchronized (this) {
+                return written + pending.size();
+            }
+        }
+    }
+
+    /**
+     * Empties the journal and starts a fresh one for the given snapshot
+     * generation. Called after a new snapshot has been written, so any
+     * buffered records are already part of it.
+     *
+     * @param generation The generation of the snapshot just written.
+     */
+    public void reset(long generation) {
+        synchronized (writeLock) {
+            synchronized (this) {
+                pending.reset();
+            }
+            try {
+                fileOut.close();
+                fileOut = new FileOutputStream(file);
+                DataOutputStream header = new DataOutputStream(fileOut);
+                header.writeInt(MAGIC);
+                header.writeLong(generation);
+                written = header.size();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Writes any buffered records and closes the journal file.
+     */
+    public void close() {
+        flush();
+        synchronized (writeLock) {
+            synchronized (this) {
+                closed = true;
+            }
+            try {
+                fileOut.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private synchronized void append(byte op, String username, String... fields) {
+        try {
+            encode(op, username, fields);
+            record.writeTo(pending);
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Starts a new record with its operation, user and string fields. The
+     * record only joins the buffer once the caller has finished it.
+     */
+    private void encode(byte op, String username, String... fields) throws IOException {
+        record.reset();
+        boolean wide = utfLength(username) > MAX_UTF_LENGTH;
+        for (String field : fields) {
+            wide |= utfLength(field) > MAX_UTF_LENGTH;
+        }
+        out.writeByte(wide ? op | WIDE : op);
+        writeString(username, wide);
+        for (String field : fields) {
+            writeString(field, wide);
+        }
+    }
+
+    private void writeString(String s, boolean wide) throws IOException {
+        if (wide) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        } else {
+            out.writeUTF(s);
+        }
+    }
+
+    private static String readString(DataInputStream in, boolean wide) throws IOException {
+        if (!wide) {
+            return in.readUTF();
+        }
+        int length = in.readInt();
+        if (length < 0 || length > in.available()) {
+            throw new IOException("Bad string length: " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gets the length of a string in the modified UTF-8 that writeUTF uses.
+     */
+    private static int utfLength(String s) {
+        if (s.length() <= MAX_UTF_LENGTH / 3) {
+            return s.length(); // fits whatever it holds; the exact length does not matter
+        }
+        int length = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            length += c >= 0x0001 && c <= 0x007F ? 1 : c <= 0x07FF ? 2 : 3;
+        }
+        return length;
+    }
+}
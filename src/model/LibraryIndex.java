@@ -0,0 +1,299 @@
+package model;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory indexes over one user's photos. A photo is indexed while it
+ * belongs to at least one of the user's albums. The model keeps the
+ * indexes current as photos, albums and tags change, and they are rebuilt
+ * from the albums whenever a user is loaded.
+ * <p>
+ * Photos are registered by file path, which is how a photo shared by
+ * several albums is found again when it is added, moved or replayed from
+ * the journal. Photos normalize their path when they are created, so the
+ * registry uses it as it is. Each registered photo also lists the albums
+ * holding it, so questions about one photo's albums cost time in
+ * proportion to how many albums hold it rather than to the size of the
+ * library.
+ * <p>
+ * Every change reported here also bumps the library version, which is
+ * what search results are cached against.
+ */
+class LibraryIndex {
+    private final Map<String, Membership> memberships = new HashMap<>(); // keyed by file path
+    private final TagIndex tags = new TagIndex();
+    private final DateIndex dates = new DateIndex();
+    private final CaptionIndex captions = new CaptionIndex();
+    private final SearchCache searches = new SearchCache();
+    private long version; // bumped by every change that can alter a search result
+
+    /**
+     * Builds the indexes for the given albums.
+     *
+     * @param albums The user's albums.
+     */
+    LibraryIndex(List<Album> albums) {
+        for (Album album : albums) {
+            for (Photo photo : album.getPhotos()) {
+                photoAdded(album, photo);
+            }
+        }
+    }
+
+    /**
+     * Gets the tag index.
+     *
+     * @return The tag index.
+     */
+    TagIndex getTags() {
+        return tags;
+    }
+
+    /**
+     * Gets the date index.
+     *
+     * @return The date index.
+     */
+    DateIndex getDates() {
+        return dates;
+    }
+
+    /**
+     * Gets the caption index.
+     *
+     * @return The caption index.
+     */
+    CaptionIndex getCaptions() {
+        return captions;
+    }
+
+    /**
+     * Gets the cache of recent search results.
+     *
+     * @return The search cache.
+     */
+    SearchCache getSearches() {
+        return searches;
+    }
+
+    /**
+     * Gets the library version, which changes whenever photos, tags,
+     * captions, album membership or album names change.
+     *
+     * @return The version.
+     */
+    long version() {
+        return version;
+    }
+
+    /**
+     * Gets every photo in the user's albums, each once.
+     *
+     * @return The photos, read-only.
+     */
+    Collection<Photo> photos() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<Photo> iterator() {
+                Iterator<Membership> it = memberships.values().iterator();
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return it.hasNext();
+                    }
+
+                    @Override
+                    public Photo next() {
+                        return it.next().photo;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return memberships.size();
+            }
+        };
+    }
+
+    /**
+     * Finds the photo with the given file path in any of the user's albums.
+     *
+     * @param filePath The file path, in any spelling of it.
+     * @return The photo, or null if no album holds a photo with that path.
+     */
+    Photo findPhoto(String filePath) {
+        // Paths recorded by the model are already normalized; only others need it
+        Membership membership = memberships.get(filePath);
+        if (membership == null) {
+            String normalized = Photo.normalizePath(filePath);
+            if (!normalized.equals(filePath)) {
+                membership = memberships.get(normalized);
+            }
+        }
+        return membership == null ? null : membership.photo;
+    }
+
+    /**
+     * Gets the albums holding a photo.
+     *
+     * @param photo The photo.
+     * @return The albums, in the order the photo was added to them; empty
+     *         if no album holds the photo.
+     */
+    List<Album> albumsContaining(Photo photo) {
+        Membership membership = membership(photo);
+        return membership == null ? Collections.emptyList() : Collections.unmodifiableList(membership.albums);
+    }
+
+    /**
+     * Called when a photo is added to one of the user's albums.
+     *
+     * @param album The album the photo was added to.
+     * @param photo The photo that was added.
+     */
+    void photoAdded(Album album, Photo photo) {
+        version++;
+        String key = photo.getFilePath();
+        Membership membership = memberships.get(key);
+        if (membership != null) {
+            membership.albums.add(album);
+        } else {
+            memberships.put(key, new Membership(photo, album));
+            dates.add(photo);
+            captions.add(photo, photo.getCaption());
+            for (Map.Entry<String, String> tag : photo.getTags().entrySet()) {
+                tags.add(photo, tag.getKey(), tag.getValue());
+            }
+        }
+    }
+
+    /**
+     * Called when a photo is removed from one of the user's albums.
+     *
+     * @param album The album the photo was removed from.
+     * @param photo The photo that was removed.
+     */
+    void photoRemoved(Album album, Photo photo) {
+        String key = photo.getFilePath();
+        Membership membership = memberships.get(key);
+        if (membership == null) {
+            return;
+        }
+        version++;
+        membership.albums.removeIf(a -> a == album);
+        if (!membership.albums.isEmpty()) {
+            return;
+        }
+
+        memberships.remove(key);
+        Photo registered = membership.photo; // the instance the indexes hold
+        dates.remove(registered);
+        captions.remove(registered, registered.getCaption());
+        for (Map.Entry<String, String> tag : registered.getTags().entrySet()) {
+            tags.remove(registered, tag.getKey(), tag.getValue());
+        }
+    }
+
+    /**
+     * Called after a tag is added to a photo or its value is replaced.
+     *
+     * @param photo The tagged photo.
+     * @param tagType The tag type.
+     * @param oldValue The value the tag had before, or null if it is new.
+     * @param newValue The tag's new value.
+     */
+    void tagAdded(Photo photo, String tagType, String oldValue, String newValue) {
+        if (membership(photo) == null) {
+            return;
+        }
+        version++;
+        if (oldValue != null && !stillTagged(photo, tagType, oldValue)) {
+            tags.remove(photo, tagType, oldValue);
+        }
+        tags.add(photo, tagType, newValue);
+    }
+
+    /**
+     * Called after a tag is removed from a photo.
+     *
+     * @param photo The photo the tag was removed from.
+     * @param tagType The tag type.
+     * @param oldValue The value the tag had.
+     */
+    void tagRemoved(Photo photo, String tagType, String oldValue) {
+        if (membership(photo) == null) {
+            return;
+        }
+        version++;
+        if (!stillTagged(photo, tagType, oldValue)) {
+            tags.remove(photo, tagType, oldValue);
+        }
+    }
+
+    /**
+     * Called after a photo's caption is changed.
+     *
+     * @param photo The photo.
+     * @param oldCaption The caption it had before, or null.
+     * @param newCaption Its new caption, or null.
+     */
+    void captionChanged(Photo photo, String oldCaption, String newCaption) {
+        if (membership(photo) != null) {
+            version++;
+            captions.remove(photo, oldCaption);
+            captions.add(photo, newCaption);
+        }
+    }
+
+    /**
+     * Called when an album is added, removed or renamed, which can change
+     * the results of searches by album name even if no photo moves.
+     */
+    void albumsChanged() {
+        version++;
+    }
+
+    /**
+     * Gets the membership of a photo, or null if that instance is not the
+     * one registered for its path.
+     */
+    private Membership membership(Photo photo) {
+        Membership membership = memberships.get(photo.getFilePath());
+        return membership != null && membership.photo == photo ? membership : null;
+    }
+
+    /**
+     * Checks whether another of the photo's tags still matches a type/value
+     * pair once case is ignored, in which case the posting must stay.
+     */
+    private boolean stillTagged(Photo photo, String tagType, String tagValue) {
+        String key = TagIndex.key(tagType, tagValue);
+        for (Map.Entry<String, String> tag : photo.getTags().entrySet()) {
+            if (key.equals(TagIndex.key(tag.getKey(), tag.getValue()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The registered instance of a photo and the albums holding it.
+     */
+    private static class Membership {
+        final Photo photo;
+        final List<Album> albums = new ArrayList<>(1);
+
+        Membership(Photo photo, Album album) {
+            this.photo = photo;
+            albums.add(album);
+        }
+    }
+}
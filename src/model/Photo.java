@@ -1,20 +1,49 @@
 package model;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * Represents a photo in the Photo App.
+ * <p>
+ * The file path is normalized to an absolute path without "." or ".."
+ * parts when the photo is created, so every spelling of a path names the
+ * same photo. It is kept as a directory and a file name, and the directory
+ * and tag strings are shared through the owning user's symbol table, since
+ * they repeat across many photos. The date is kept as epoch seconds and
+ * nanoseconds in UTC and the tags in a small array-backed map, so a photo
+ * costs a handful of objects rather than dozens.
  */
 public class Photo implements Serializable {
     private static final long serialVersionUID = 1L;
     
-    private String filePath;
+    // Serialized form, kept compatible with data written before the path was split
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("filePath", String.class),
+        new ObjectStreamField("caption", String.class),
+        new ObjectStreamField("dateTime", LocalDateTime.class),
+        new ObjectStreamField("tags", Map.class)
+    };
+    
+    private String directory; // including the trailing separator
+    private String fileName;
     private String caption;
-    private LocalDateTime dateTime;
-    private Map<String, String> tags; // tag type -> tag value
+    private long epochSecond; // date taken, in UTC
+    private int nano;
+    private TagMap tags; // tag type -> tag value
+    private transient User owner;
+    private transient String filePath; // directory + fileName, joined on first use
     
     /**
      * Creates a new photo with the specified file path.
@@ -23,10 +52,33 @@ public class Photo implements Serializable {
      * @param dateTime The date and time when the photo was taken.
      */
     public Photo(String filePath, LocalDateTime dateTime) {
-        this.filePath = filePath;
-        this.dateTime = dateTime;
+        splitFilePath(normalizePath(filePath));
+        setDateTime(dateTime);
+        this.caption = "";
+        this.tags = new TagMap();
+    }
+    
+    /**
+     * Creates a new photo from a path already split into directory and file
+     * name, as stored in snapshots.
+     * 
+     * @param directory The directory, including the trailing separator.
+     * @param fileName The file name.
+     * @param dateTime The date and time when the photo was taken.
+     */
+    Photo(String directory, String fileName, LocalDateTime dateTime) {
+        String path = directory.concat(fileName);
+        String normalized = normalizePath(path);
+        if (normalized.equals(path)) {
+            this.directory = directory; // keep the snapshot's shared directory string
+            this.fileName = fileName;
+            this.filePath = path;
+        } else {
+            splitFilePath(normalized);
+        }
+        setDateTime(dateTime);
         this.caption = "";
-        this.tags = new HashMap<>();
+        this.tags = new TagMap();
     }
     
     /**
@@ -35,7 +87,30 @@ public class Photo implements Serializable {
      * @return The file path.
      */
     public String getFilePath() {
-        return filePath;
+        String path = filePath;
+        if (path == null) {
+            path = directory.concat(fileName);
+            filePath = path;
+        }
+        return path;
+    }
+    
+    /**
+     * Gets the directory part of this photo's file path.
+     * 
+     * @return The directory, including the trailing separator.
+     */
+    String getDirectory() {
+        return directory;
+    }
+    
+    /**
+     * Gets the file name part of this photo's file path.
+     * 
+     * @return The file name.
+     */
+    String getFileName() {
+        return fileName;
     }
     
     /**
@@ -53,7 +128,16 @@ public class Photo implements Serializable {
      * @param caption The new caption.
      */
     public void setCaption(String caption) {
+        String oldCaption = this.caption;
         this.caption = caption;
+        LibraryIndex index = index();
+        if (index != null) {
+            index.captionChanged(this, oldCaption, caption);
+        }
+        Journal journal = journal();
+        if (journal != null) {
+            journal.setCaption(owner.getUsername(), getFilePath(), caption);
+        }
     }
     
     /**
@@ -62,11 +146,42 @@ public class Photo implements Serializable {
      * @return The date and time.
      */
     public LocalDateTime getDateTime() {
-        return dateTime;
+        return LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC);
+    }
+    
+    /**
+     * Gets the seconds part of the date taken, counted from the epoch in UTC.
+     * 
+     * @return The epoch second.
+     */
+    long getEpochSecond() {
+        return epochSecond;
     }
     
     /**
-     * Gets the tags associated with this photo.
+     * Gets the nanoseconds part of the date taken.
+     * 
+     * @return The nanosecond within the second.
+     */
+    int getNano() {
+        return nano;
+    }
+    
+    /**
+     * Compares the dates two photos were taken without creating date objects.
+     * 
+     * @param other The photo to compare with.
+     * @return A negative number if this photo was taken first, zero if at the
+     *         same time, and a positive number if later.
+     */
+    public int compareDateTime(Photo other) {
+        int cmp = Long.compare(epochSecond, other.epochSecond);
+        return cmp != 0 ? cmp : Integer.compare(nano, other.nano);
+    }
+    
+    /**
+     * Gets the tags associated with this photo. The map is read-only; use
+     * {@link #addTag} and {@link #removeTag} to change tags.
      * 
      * @return The map of tag types to tag values.
      */
@@ -81,7 +196,19 @@ public class Photo implements Serializable {
      * @param tagValue The value of the tag.
      */
     public void addTag(String tagType, String tagValue) {
-        tags.put(tagType, tagValue);
+        if (owner != null) {
+            tagType = owner.symbols().intern(tagType);
+            tagValue = owner.symbols().intern(tagValue);
+        }
+        String oldValue = tags.putTag(tagType, tagValue);
+        LibraryIndex index = index();
+        if (index != null) {
+            index.tagAdded(this, tagType, oldValue, tagValue);
+        }
+        Journal journal = journal();
+        if (journal != null) {
+            journal.putTag(owner.getUsername(), getFilePath(), tagType, tagValue);
+        }
     }
     
     /**
@@ -91,7 +218,17 @@ public class Photo implements Serializable {
      * @return true if the tag was removed, false otherwise.
      */
     public boolean removeTag(String tagType) {
-        return tags.remove(tagType) != null;
+        String oldValue = tags.removeTag(tagType);
+        boolean removed = oldValue != null;
+        LibraryIndex index = index();
+        if (removed && index != null) {
+            index.tagRemoved(this, tagType, oldValue);
+        }
+        Journal journal = journal();
+        if (removed && journal != null) {
+            journal.removeTag(owner.getUsername(), getFilePath(), tagType);
+        }
+        return removed;
     }
     
     /**
@@ -114,16 +251,110 @@ public class Photo implements Serializable {
         return tags.get(tagType);
     }
     
+    /**
+     * Sets the user that owns this photo, and switches its directory and
+     * tags over to that user's shared strings.
+     * 
+     * @param owner The owning user.
+     */
+    void setOwner(User owner) {
+        if (this.owner == owner) {
+            return;
+        }
+        this.owner = owner;
+        if (owner != null) {
+            SymbolTable symbols = owner.symbols();
+            directory = symbols.intern(directory);
+            tags.intern(symbols);
+        }
+    }
+    
+    private void setDateTime(LocalDateTime dateTime) {
+        epochSecond = dateTime.toEpochSecond(ZoneOffset.UTC);
+        nano = dateTime.getNano();
+    }
+    
+    /**
+     * Normalizes a file path to the form photos keep: absolute, with
+     * redundant "." and ".." parts removed. Paths that are not paths on
+     * this platform, such as Windows paths read on another system, are
+     * kept as they are.
+     * 
+     * @param filePath The path as given.
+     * @return The normalized path.
+     */
+    static String normalizePath(String filePath) {
+        if (isPlainUnixPath(filePath)) {
+            return filePath; // the common case, checked without building a Path
+        }
+        try {
+            Path path = Paths.get(filePath);
+            if (!path.isAbsolute() && isForeignAbsolute(filePath)) {
+                return filePath;
+            }
+            return path.toAbsolutePath().normalize().toString();
+        } catch (InvalidPathException e) {
+            return filePath;
+        }
+    }
+    
+    private static boolean isPlainUnixPath(String filePath) {
+        return File.separatorChar == '/' && filePath.startsWith("/") && !filePath.endsWith("/")
+            && !filePath.contains("//") && !filePath.contains("/./") && !filePath.contains("/../")
+            && !filePath.endsWith("/.") && !filePath.endsWith("/..") && filePath.indexOf('\0') < 0;
+    }
+
+    private static boolean isForeignAbsolute(String filePath) {
+        boolean drive = filePath.length() > 2 && Character.isLetter(filePath.charAt(0))
+            && filePath.charAt(1) == ':' && (filePath.charAt(2) == '\\' || filePath.charAt(2) == '/');
+        return drive || filePath.startsWith("\\\\");
+    }
+    
+    private void splitFilePath(String filePath) {
+        int split = Math.max(filePath.lastIndexOf('/'), filePath.lastIndexOf('\\')) + 1;
+        directory = filePath.substring(0, split);
+        fileName = filePath.substring(split);
+    }
+    
+    private Journal journal() {
+        return owner == null ? null : owner.getJournal();
+    }
+    
+    private LibraryIndex index() {
+        return owner == null ? null : owner.indexIfBuilt();
+    }
+    
     @Override
     public boolean equals(Object obj) {
         if (this == obj) return true;
         if (obj == null || getClass() != obj.getClass()) return false;
         Photo other = (Photo) obj;
-        return filePath.equals(other.filePath);
+        return fileName.equals(other.fileName) && directory.equals(other.directory);
     }
     
     @Override
     public int hashCode() {
-        return filePath.hashCode();
+        return 31 * directory.hashCode() + fileName.hashCode();
+    }
+    
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("filePath", getFilePath());
+        fields.put("caption", caption);
+        fields.put("dateTime", getDateTime());
+        fields.put("tags", new HashMap<>(tags));
+        out.writeFields();
+    }
+    
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        splitFilePath(normalizePath((String) fields.get("filePath", null)));
+        caption = (String) fields.get("caption", null);
+        setDateTime((LocalDateTime) fields.get("dateTime", null));
+        tags = new TagMap();
+        for (Map.Entry<String, String> tag : ((Map<String, String>) fields.get("tags", null)).entrySet()) {
+            tags.putTag(tag.getKey(), tag.getValue());
+        }
     }
 }
\ No newline at end of file
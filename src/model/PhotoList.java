@@ -0,0 +1,173 @@
+package model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * The photos of an album, in the order they were added, without
+ * duplicates. Membership checks, additions and removals take amortized
+ * constant time: a removed photo leaves a hole in the backing array, and
+ * the holes are closed up in one pass once they make up half of it, so
+ * removing many photos in a row stays linear.
+ * <p>
+ * As a {@link java.util.List} this is read-only; albums change it through
+ * {@link #append} and {@link #delete}. Reading never changes the list, so
+ * the album's photos can be read from other threads while no edit is in
+ * progress. Iterating skips holes as it goes; reading by position is
+ * constant time until a photo is removed, and a scan up to the next
+ * compaction after that.
+ */
+final class PhotoList extends AbstractList<Photo> {
+    private Photo[] slots = new Photo[8];
+    private int end; // slots in use, including holes
+    private int holes;
+    private final Map<Photo, Integer> positions = new HashMap<>(); // photo -> slot
+
+    /**
+     * Adds a photo at the end, unless it is already in the list.
+     *
+     * @param photo The photo to add.
+     * @return true if the photo was added, false if it was already present.
+     */
+    boolean append(Photo photo) {
+        if (positions.putIfAbsent(photo, end) != null) {
+            return false;
+        }
+        if (end == slots.length) {
+            compact();
+            if (end == slots.length) {
+                slots = Arrays.copyOf(slots, slots.length * 2);
+            }
+            positions.put(photo, end);
+        }
+        slots[end++] = photo;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Removes a photo.
+     *
+     * @param photo The photo to remove.
+     * @return true if the photo was removed, false if it was not present.
+     */
+    boolean delete(Object photo) {
+        Integer slot = positions.remove(photo);
+        if (slot == null) {
+            return false;
+        }
+        slots[slot] = null;
+        holes++;
+        modCount++;
+        if (holes > end / 2) {
+            compact();
+        }
+        return true;
+    }
+
+    @Override
+    public Photo get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        if (holes == 0) {
+            return slots[index];
+        }
+        for (int slot = 0; ; slot++) {
+            if (slots[slot] != null && index-- == 0) {
+                return slots[slot];
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return end - holes;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return positions.containsKey(o);
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        Integer slot = positions.get(o);
+        if (slot == null) {
+            return -1;
+        }
+        int index = slot;
+        for (int i = 0; holes > 0 && i < slot; i++) {
+            if (slots[i] == null) {
+                index--;
+            }
+        }
+        return index;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return indexOf(o);
+    }
+
+    @Override
+    public Iterator<Photo> iterator() {
+        return new Iterator<>() {
+            private final int expectedModCount = modCount;
+            private int slot = skipHoles(0);
+
+            @Override
+            public boolean hasNext() {
+                return slot < end;
+            }
+
+            @Override
+            public Photo next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (slot >= end) {
+                    throw new NoSuchElementException();
+                }
+                Photo photo = slots[slot];
+                slot = skipHoles(slot + 1);
+                return photo;
+            }
+        };
+    }
+
+    private int skipHoles(int slot) {
+        while (slot < end && slots[slot] == null) {
+            slot++;
+        }
+        return slot;
+    }
+
+    /**
+     * Closes up the holes left by removed photos, keeping the order.
+     */
+    private void compact() {
+        if (holes == 0) {
+            return;
+        }
+        int to = 0;
+        for (int from = 0; from < end; from++) {
+            Photo photo = slots[from];
+            if (photo != null) {
+                if (to != from) {
+                    slots[to] = photo;
+                    positions.put(photo, to);
+                }
+                to++;
+            }
+        }
+        Arrays.fill(slots, to, end, null);
+        end = to;
+        holes = 0;
+    }
+}
@@ -0,0 +1,877 @@
+package model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * A compiled photo search. Queries combine terms with AND, OR, NOT and
+ * parentheses; AND binds tighter than OR, and terms written next to each
+ * other without an operator are joined with AND. The terms are:
+ * <ul>
+ * <li>{@code type=value} - photos tagged with that type and value; spaces
+ *     around the = are allowed</li>
+ * <li>{@code date:2024-01-01..2024-12-31} - photos taken on or between two
+ *     days; either end may be left out, and a single day is also allowed</li>
+ * <li>{@code album:name} - photos in the named album</li>
+ * <li>{@code caption:text} - photos whose caption contains every word of
+ *     the text</li>
+ * </ul>
+ * Names and values are matched ignoring case. A value may be quoted, and an
+ * unquoted value runs on over following words up to the next operator or
+ * term, so {@code location=New York AND person=bob} works as expected.
+ * <p>
+ * A query is parsed once and can then be run against any number of users,
+ * from several threads at once.
+ * Each run turns it into a plan: terms that have an index are looked up
+ * there, AND starts from its most selective term and checks the others on
+ * those photos only, most selective first, and both AND and OR stop
+ * checking a photo as soon as its outcome is known.
+ */
+public class PhotoQuery {
+    private final String text;
+    private final Expr expr;
+    private final String key;
+
+    private PhotoQuery(String text, Expr expr) {
+        this.text = text;
+        this.expr = expr;
+        this.key = expr.key();
+    }
+
+    /**
+     * Parses a query.
+     *
+     * @param text The query text.
+     * @return The compiled query.
+     * @throws IllegalArgumentException If the query is empty or malformed; the
+     *         message describes the problem.
+     */
+    public static PhotoQuery parse(String text) {
+        Parser parser = new Parser(tokenize(text));
+        if (parser.atEnd()) {
+            throw new IllegalArgumentException("Enter a search.");
+        }
+        Expr expr = parser.parseOr();
+        if (!parser.atEnd()) {
+            throw new IllegalArgumentException("Unexpected \"" + parser.peek().text + "\".");
+        }
+        return new PhotoQuery(text, expr);
+    }
+
+    /**
+     * Runs this query against a user's photos.
+     *
+     * @param user The user whose albums are searched.
+     * @return The matching photos, each once, oldest first.
+     */
+    public List<Photo> search(User user) {
+        return open(user).next(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Starts running this query against a user's photos, to be read a page
+     * at a time with {@link Cursor#next}. Pages come out oldest first, so
+     * the first page is ready without finding every match.
+     * <p>
+     * The matches are kept in the user's search cache under this query's
+     * normalized form until the library next changes, so running an
+     * equivalent query again reads them back instead of searching.
+     *
+     * @param user The user whose albums are searched.
+     * @return A cursor over the matching photos.
+     */
+    public Cursor open(User user) {
+        LibraryIndex index = user.index();
+        return new Cursor(index.getSearches().get(key, index.version(),
+                                                  () -> new Results(expr.bind(new Context(user, index)), index)));
+    }
+
+    /**
+     * Gets the normalized form of this query, which equivalent queries
+     * share: names and values are lower-cased, and the terms of AND and
+     * OR are sorted.
+     *
+     * @return The normalized query.
+     */
+    String key() {
+        return key;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+
+    /**
+     * The matches of a running query, read a page at a time from the
+     * query's {@link Results}. A cursor can be cancelled from any thread.
+     */
+    public static final class Cursor {
+        private final Results results;
+        private int position;
+        private volatile boolean cancelled;
+        private volatile boolean done;
+
+        private Cursor(Results results) {
+            this.results = results;
+        }
+
+        /**
+         * Reads the next page of matches.
+         *
+         * @param max The most photos to return.
+         * @return The next matches, oldest first; fewer than {@code max}
+         *         only once the matches run out or the cursor is cancelled.
+         * @throws java.util.ConcurrentModificationException If more matches
+         *         had to be found but the library has changed since the
+         *         cursor was opened; open the query again to continue.
+         */
+        public synchronized List<Photo> next(int max) {
+            if (cancelled) {
+                done = true;
+                return new ArrayList<>();
+            }
+            List<Photo> page = results.read(position, max, this);
+            position += page.size();
+            if (cancelled || results.isExhausted(position)) {
+                done = true;
+            }
+            return page;
+        }
+
+        /**
+         * Checks whether every match has been read.
+         *
+         * @return true once the matches have run out or the cursor was
+         *         cancelled.
+         */
+        public boolean isDone() {
+            return done;
+        }
+
+        /**
+         * Stops the query. A page being read returns early.
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+
+    /**
+     * The matches of a query against one version of a user's library,
+     * found as cursors ask for them and kept for every later cursor over
+     * the same query. A query whose indexed terms narrow it down to a
+     * small share of the library has its matches found and sorted up
+     * front; any other query walks the library in date order and checks
+     * each photo as it goes, so producing a page costs about as much as the
+     * page is worth.
+     * <p>
+     * Matches may be found on a background thread, as long as the user's
+     * library is not changed while they are being read. Once the library
+     * has changed, the walk is never resumed: only the matches already
+     * found can still be read.
+     */
+    static final class Results {
+        // Matches are sorted up front when the estimate is at most this share of the library
+        private static final int SORT_FRACTION = 8;
+
+        private final List<Photo> found = new ArrayList<>();
+        private final long version; // library version the matches belong to
+        private Plan plan; // dropped once every match is found
+        private LibraryIndex index;
+        private Iterator<Photo> source; // null until the first read
+        private boolean filtering;
+        private boolean complete;
+
+        private Results(Plan plan, LibraryIndex index) {
+            this.plan = plan;
+            this.index = index;
+            this.version = index.version();
+        }
+
+        /**
+         * Reads matches by position, finding more as needed.
+         */
+        synchronized List<Photo> read(int from, int max, Cursor cursor) {
+            if (!complete && found.size() - from < max && index.version() != version) {
+                throw new ConcurrentModificationException("The library changed during the search.");
+            }
+            if (source == null && !complete) {
+                start();
+            }
+            while (found.size() - from < max && !complete && !cursor.cancelled) {
+                if (!source.hasNext()) {
+                    finish();
+                    break;
+                }
+                Photo photo = source.next();
+                if (!filtering || plan.matches(photo)) {
+                    found.add(photo);
+                }
+            }
+            if (!complete && !source.hasNext()) {
+                finish();
+            }
+            int end = (int) Math.min(found.size(), (long) from + max);
+            return new ArrayList<>(found.subList(Math.min(from, end), end));
+        }
+
+        synchronized boolean isExhausted(int position) {
+            return complete && position >= found.size();
+        }
+
+        private void start() {
+            if (plan.enumerable() && plan.estimate <= index.photos().size() / SORT_FRACTION) {
+                List<Photo> matches = new ArrayList<>(plan.enumerate());
+                matches.sort(Photo::compareDateTime);
+                source = matches.iterator();
+            } else {
+                source = index.getDates().iterator();
+                filtering = true;
+            }
+        }
+
+        private void finish() {
+            complete = true;
+            plan = null;
+            index = null;
+            source = null;
+        }
+    }
+
+    // ---- Parsing ----
+
+    private static final Set<String> FIELDS = Set.of("date", "album", "caption");
+
+    private static final class Token {
+        final String text;
+        final boolean quoted;
+
+        Token(String text, boolean quoted) {
+            this.text = text;
+            this.quoted = quoted;
+        }
+
+        boolean is(String keyword) {
+            return !quoted && text.equals(keyword);
+        }
+
+        boolean isOperator() {
+            return is("AND") || is("OR") || is("NOT") || is("(") || is(")");
+        }
+
+        boolean isTerm() {
+            if (quoted || isOperator()) {
+                return false;
+            }
+            int colon = text.indexOf(':');
+            return text.indexOf('=') >= 0 || colon >= 0 && FIELDS.contains(text.substring(0, colon).toLowerCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * Splits a query into words, parentheses and quoted strings.
+     */
+    private static List<Token> tokenize(String text) {
+        List<Token> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '(' || c == ')') {
+                tokens.add(new Token(String.valueOf(c), false));
+                i++;
+            } else {
+                StringBuilder word = new StringBuilder();
+                boolean quoted = false;
+                boolean wholeWordQuoted = c == '"';
+                while (i < text.length()) {
+                    c = text.charAt(i);
+                    if (c == '"') {
+                        int close = text.indexOf('"', i + 1);
+                        if (close < 0) {
+                            throw new IllegalArgumentException("Missing closing quote.");
+                        }
+                        word.append(text, i + 1, close);
+                        quoted = true;
+                        i = close + 1;
+                    } else if (Character.isWhitespace(c) || c == '(' || c == ')') {
+                        break;
+                    } else {
+                        word.append(c);
+                        i++;
+                    }
+                }
+                // A quoted operator or term is a plain value; "type=\"a b\"" is still a term
+                tokens.add(new Token(word.toString(), quoted && wholeWordQuoted));
+            }
+        }
+        return tokens;
+    }
+
+    private static final class Parser {
+        private final List<Token> tokens;
+        private int pos;
+
+        Parser(List<Token> tokens) {
+            this.tokens = tokens;
+        }
+
+        boolean atEnd() {
+            return pos >= tokens.size();
+        }
+
+        Token peek() {
+            return tokens.get(pos);
+        }
+
+        Expr parseOr() {
+            List<Expr> children = new ArrayList<>();
+            children.add(parseAnd());
+            while (!atEnd() && peek().is("OR")) {
+                pos++;
+                children.add(parseAnd());
+            }
+            return children.size() == 1 ? children.get(0) : new OrExpr(children);
+        }
+
+        Expr parseAnd() {
+            List<Expr> children = new ArrayList<>();
+            children.add(parseUnary());
+            while (!atEnd() && !peek().is("OR") && !peek().is(")")) {
+                if (peek().is("AND")) {
+                    pos++;
+                }
+                children.add(parseUnary());
+            }
+            return children.size() == 1 ? children.get(0) : new AndExpr(children);
+        }
+
+        Expr parseUnary() {
+            if (atEnd()) {
+                throw new IllegalArgumentException("The search ends too early.");
+            }
+            Token token = tokens.get(pos++);
+            if (token.is("NOT")) {
+                return new NotExpr(parseUnary());
+            }
+            if (token.is("(")) {
+                Expr inner = parseOr();
+                if (atEnd() || !peek().is(")")) {
+                    throw new IllegalArgumentException("Missing closing parenthesis.");
+                }
+                pos++;
+                return inner;
+            }
+            if (startsSpacedTerm(pos - 1)) {
+                // A tag term written with spaces around the =, as in person = bob
+                token = new Token(token.text + tokens.get(pos++).text, false);
+            }
+            if (!token.isTerm()) {
+                throw new IllegalArgumentException("Expected a term like type=value, not \"" + token.text + "\".");
+            }
+
+            // An unquoted value runs on over the following plain words
+            StringBuilder value = new StringBuilder(token.text);
+            while (!atEnd() && !peek().isOperator() && !peek().isTerm() && !startsSpacedTerm(pos)) {
+                value.append(' ').append(tokens.get(pos++).text);
+            }
+            return term(value.toString());
+        }
+
+        /**
+         * Checks whether the token at a position is a tag type followed by
+         * a separate token starting with =, such as "person" in
+         * {@code person = bob} or {@code person =bob}.
+         */
+        private boolean startsSpacedTerm(int at) {
+            if (at + 1 >= tokens.size()) {
+                return false;
+            }
+            Token type = tokens.get(at);
+            Token next = tokens.get(at + 1);
+            return !type.isOperator() && !type.isTerm() && !next.quoted && next.text.startsWith("=");
+        }
+
+        private Expr term(String text) {
+            int eq = text.indexOf('=');
+            int colon = text.indexOf(':');
+            if (colon >= 0 && (eq < 0 || colon < eq)) {
+                String field = text.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+                String value = text.substring(colon + 1).trim();
+                if (value.isEmpty()) {
+                    throw new IllegalArgumentException("Missing value after \"" + field + ":\".");
+                }
+                switch (field) {
+                    case "date":
+                        return DateExpr.parse(value);
+                    case "album":
+                        return new AlbumExpr(value);
+                    case "caption":
+                        return new CaptionExpr(value);
+                    default:
+                        if (eq < 0) {
+                            throw new IllegalArgumentException("Unknown search field \"" + field + "\".");
+                        }
+                }
+            }
+            String type = text.substring(0, eq).trim();
+            String value = text.substring(eq + 1).trim();
+            if (type.isEmpty() || value.isEmpty()) {
+                throw new IllegalArgumentException("Tag terms need a type and a value, like person=alice.");
+            }
+            return new TagExpr(type, value);
+        }
+    }
+
+    // ---- Query tree, independent of any user ----
+
+    private abstract static class Expr {
+        abstract Plan bind(Context context);
+
+        /**
+         * Gets the normalized form of this expression; see
+         * {@link PhotoQuery#key()}.
+         */
+        abstract String key();
+    }
+
+    /**
+     * Lower-cases a name or value for a key, prefixed with its length so
+     * that no value can be mistaken for key syntax.
+     */
+    private static String keyOf(String s) {
+        return s.length() + ":" + s.toLowerCase(Locale.ROOT);
+    }
+
+    private static String keyOf(String operator, List<Expr> children) {
+        Set<String> keys = new TreeSet<>();
+        for (Expr child : children) {
+            keys.add(child.key());
+        }
+        return operator + "(" + String.join(",", keys) + ")";
+    }
+
+    private static final class TagExpr extends Expr {
+        final String type;
+        final String value;
+
+        TagExpr(String type, String value) {
+            this.type = type;
+            this.value = value;
+        }
+
+        @Override
+        Plan bind(Context context) {
+            return new IndexedPlan(context.index.getTags().find(type, value), TAG_COST);
+        }
+
+        @Override
+        String key() {
+            return "tag(" + keyOf(type) + "," + keyOf(value) + ")";
+        }
+    }
+
+    private static final class DateExpr extends Expr {
+        final LocalDateTime from; // inclusive, or null
+        final LocalDateTime to; // exclusive, or null
+
+        DateExpr(LocalDateTime from, LocalDateTime to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        static DateExpr parse(String value) {
+            try {
+                int range = value.indexOf("..");
+                if (range < 0) {
+                    LocalDate day = LocalDate.parse(value);
+                    return new DateExpr(day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+                }
+                String start = value.substring(0, range).trim();
+                String end = value.substring(range + 2).trim();
+                if (start.isEmpty() && end.isEmpty()) {
+                    throw new IllegalArgumentException("A date range needs at least one end.");
+                }
+                return new DateExpr(start.isEmpty() ? null : LocalDate.parse(start).atStartOfDay(),
+                                    end.isEmpty() ? null : LocalDate.parse(end).plusDays(1).atStartOfDay());
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Dates are written as yyyy-mm-dd: \"" + value + "\".");
+            }
+        }
+
+        @Override
+        String key() {
+            return "date(" + from + "," + to + ")";
+        }
+
+        @Override
+        Plan bind(Context context) {
+            DateIndex dates = context.index.getDates();
+            long fromSecond = from == null ? Long.MIN_VALUE : from.toEpochSecond(ZoneOffset.UTC);
+            long toSecond = to == null ? Long.MAX_VALUE : to.toEpochSecond(ZoneOffset.UTC);
+            // Listing a wide range is costly, so it is only done if the plan ends up needing it
+            long estimate = Math.round(context.universe * dates.share(from, to));
+            return new Plan(estimate, DATE_COST) {
+                private List<Photo> photos;
+
+                @Override
+                boolean matches(Photo photo) {
+                    long second = photo.getEpochSecond();
+                    return second >= fromSecond && second < toSecond;
+                }
+
+                @Override
+                boolean enumerable() {
+                    return true;
+                }
+
+                @Override
+                Collection<Photo> enumerate() {
+                    if (photos == null) {
+                        photos = dates.findRange(from, to);
+                    }
+                    return photos;
+                }
+            };
+        }
+    }
+
+    private static final class AlbumExpr extends Expr {
+        final String name;
+
+        AlbumExpr(String name) {
+            this.name = name;
+        }
+
+        @Override
+        Plan bind(Context context) {
+            Album album = context.user.getAlbumByNameIgnoreCase(name);
+            return new IndexedPlan(album == null ? List.of() : album.getPhotos(), ALBUM_COST);
+        }
+
+        @Override
+        String key() {
+            return "album(" + keyOf(name) + ")";
+        }
+    }
+
+    private static final class CaptionExpr extends Expr {
+        final String[] words; // folded for CaptionIndex
+
+        CaptionExpr(String text) {
+            this.words = CaptionIndex.fold(text).split("\\s+");
+        }
+
+        @Override
+        String key() {
+            Set<String> keys = new TreeSet<>();
+            for (String word : words) {
+                keys.add(keyOf(word));
+            }
+            return "caption(" + String.join(",", keys) + ")";
+        }
+
+        @Override
+        Plan bind(Context context) {
+            // The trigram index narrows the photos down; each one's caption is then checked
+            Collection<Photo> candidates = context.index.getCaptions().candidates(words);
+            return new Plan(candidates.size(), CAPTION_COST) {
+                @Override
+                boolean matches(Photo photo) {
+                    return CaptionIndex.matches(photo.getCaption(), words);
+                }
+
+                @Override
+                boolean enumerable() {
+                    return true;
+                }
+
+                @Override
+                Collection<Photo> enumerate() {
+                    List<Photo> result = new ArrayList<>();
+                    for (Photo photo : candidates) {
+                        if (matches(photo)) {
+                            result.add(photo);
+                        }
+                    }
+                    return result;
+                }
+            };
+        }
+    }
+
+    private static final class NotExpr extends Expr {
+        final Expr child;
+
+        NotExpr(Expr child) {
+            this.child = child;
+        }
+
+        @Override
+        String key() {
+            return "not(" + child.key() + ")";
+        }
+
+        @Override
+        Plan bind(Context context) {
+            Plan inner = child.bind(context);
+            return new Plan(Math.max(0, context.universe - inner.estimate), inner.cost) {
+                @Override
+                boolean matches(Photo photo) {
+                    return !inner.matches(photo);
+                }
+
+                @Override
+                Collection<Photo> enumerate() {
+                    return context.scan(this);
+                }
+            };
+        }
+    }
+
+    private static final class AndExpr extends Expr {
+        final List<Expr> children;
+
+        AndExpr(List<Expr> children) {
+            this.children = children;
+        }
+
+        @Override
+        String key() {
+            return keyOf("and", children);
+        }
+
+        @Override
+        Plan bind(Context context) {
+            List<Plan> plans = new ArrayList<>();
+            for (Expr child : children) {
+                plans.add(child.bind(context));
+            }
+
+            // Drive from the smallest set an index can produce, if any
+            Plan driver = null;
+            for (Plan plan : plans) {
+                if (plan.enumerable() && (driver == null || plan.estimate < driver.estimate)) {
+                    driver = plan;
+                }
+            }
+            long estimate = context.universe;
+            double cost = 0;
+            for (Plan plan : plans) {
+                estimate = Math.min(estimate, plan.estimate);
+                cost += plan.cost;
+            }
+
+            // Check the terms most likely to reject a photo, per unit of cost, first
+            List<Plan> checks = new ArrayList<>(plans);
+            checks.remove(driver);
+            checks.sort(Comparator.comparingDouble(plan -> plan.cost / Math.max(1e-9, 1 - context.fraction(plan))));
+
+            Plan source = driver;
+            return new Plan(estimate, cost) {
+                @Override
+                boolean matches(Photo photo) {
+                    if (source != null && !source.matches(photo)) {
+                        return false;
+                    }
+                    for (Plan check : checks) {
+                        if (!check.matches(photo)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }
+
+                @Override
+                boolean enumerable() {
+                    return source != null;
+                }
+
+                @Override
+                Collection<Photo> enumerate() {
+                    if (source == null) {
+                        return context.scan(this);
+                    }
+                    List<Photo> result = new ArrayList<>();
+                    for (Photo photo : source.enumerate()) {
+                        boolean matchesAll = true;
+                        for (Plan check : checks) {
+                            if (!check.matches(photo)) {
+                                matchesAll = false;
+                                break;
+                            }
+                        }
+                        if (matchesAll) {
+                            result.add(photo);
+                        }
+                    }
+                    return result;
+                }
+            };
+        }
+    }
+
+    private static final class OrExpr extends Expr {
+        final List<Expr> children;
+
+        OrExpr(List<Expr> children) {
+            this.children = children;
+        }
+
+        @Override
+        String key() {
+            return keyOf("or", children);
+        }
+
+        @Override
+        Plan bind(Context context) {
+            List<Plan> plans = new ArrayList<>();
+            long estimate = 0;
+            double cost = 0;
+            boolean allEnumerable = true;
+            for (Expr child : children) {
+                Plan plan = child.bind(context);
+                plans.add(plan);
+                estimate = Math.min(context.universe, estimate + plan.estimate);
+                cost += plan.cost;
+                allEnumerable &= plan.enumerable();
+            }
+
+            // Check the terms most likely to accept a photo, per unit of cost, first
+            plans.sort(Comparator.comparingDouble(plan -> plan.cost / Math.max(1e-9, context.fraction(plan))));
+
+            boolean enumerable = allEnumerable;
+            return new Plan(estimate, cost) {
+                @Override
+                boolean matches(Photo photo) {
+                    for (Plan plan : plans) {
+                        if (plan.matches(photo)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                }
+
+                @Override
+                boolean enumerable() {
+                    return enumerable;
+                }
+
+                @Override
+                Collection<Photo> enumerate() {
+                    if (!enumerable) {
+                        return context.scan(this);
+                    }
+                    Set<Photo> result = new LinkedHashSet<>();
+                    for (Plan plan : plans) {
+                        result.addAll(plan.enumerate());
+                    }
+                    return result;
+                }
+            };
+        }
+    }
+
+    // ---- Plans, bound to one user's indexes ----
+
+    // Relative cost of checking one photo against each kind of term
+    private static final double DATE_COST = 1;
+    private static final double ALBUM_COST = 2;
+    private static final double TAG_COST = 2;
+    private static final double CAPTION_COST = 10;
+
+    private static final class Context {
+        final User user;
+        final LibraryIndex index;
+        final long universe;
+
+        Context(User user, LibraryIndex index) {
+            this.user = user;
+            this.index = index;
+            this.universe = index.photos().size();
+        }
+
+        double fraction(Plan plan) {
+            return universe == 0 ? 0 : (double) plan.estimate / universe;
+        }
+
+        /**
+         * Lists a plan's matches by checking every photo in the library, for
+         * plans no index can list.
+         */
+        List<Photo> scan(Plan plan) {
+            List<Photo> result = new ArrayList<>();
+            for (Photo photo : index.photos()) {
+                if (plan.matches(photo)) {
+                    result.add(photo);
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * A term or combination bound to one user's data. Every plan can check
+     * a single photo and list its matches; plans backed by an index are
+     * enumerable, meaning they can list their matches without checking
+     * every photo in the library.
+     */
+    private abstract static class Plan {
+        final long estimate; // expected number of matches
+        final double cost; // cost of checking one photo
+
+        Plan(long estimate, double cost) {
+            this.estimate = estimate;
+            this.cost = cost;
+        }
+
+        abstract boolean matches(Photo photo);
+
+        boolean enumerable() {
+            return false;
+        }
+
+        abstract Collection<Photo> enumerate();
+    }
+
+    /**
+     * A term whose matches are a set the model already keeps.
+     */
+    private static final class IndexedPlan extends Plan {
+        private final Collection<Photo> photos;
+
+        IndexedPlan(Collection<Photo> photos, double cost) {
+            super(photos.size(), cost);
+            this.photos = photos;
+        }
+
+        @Override
+        boolean matches(Photo photo) {
+            return photos.contains(photo);
+        }
+
+        @Override
+        boolean enumerable() {
+            return true;
+        }
+
+        @Override
+        Collection<Photo> enumerate() {
+            return photos;
+        }
+    }
+}
@@ -31,6 +31,15 @@ public class Photos extends Application {
         }
     }
 
+    /**
+     * Writes any edits still waiting for the background saver before the
+     * application exits.
+     */
+    @Override
+    public void stop() {
+        BackgroundSaver.getInstance().flush();
+    }
+
     /**
      * The main entry point for the application.
      *
@@ -0,0 +1,229 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Counted words that can be completed from a prefix, most used first.
+ * Words are matched ignoring case and keep the spelling they were first
+ * added with.
+ * <p>
+ * The words are kept in a radix tree, so finding a prefix costs time in
+ * proportion to its length however many words there are. Every node
+ * remembers the best {@link #MAX_SUGGESTIONS} words below it; a change
+ * forgets only the remembered lists on the changed word's path, and those
+ * are worked out again from their children's lists the next time they
+ * are asked for.
+ */
+class PrefixIndex {
+    /**
+     * The most suggestions a single lookup returns.
+     */
+    static final int MAX_SUGGESTIONS = 10;
+
+    private static final Node[] NONE = new Node[0];
+
+    private static final Comparator<Node> BEST_FIRST =
+        Comparator.comparingInt((Node node) -> node.count).reversed()
+                  .thenComparing(node -> node.word, String.CASE_INSENSITIVE_ORDER);
+
+    private final Node root = new Node("");
+
+    /**
+     * Counts one more use of a word.
+     *
+     * @param word The word.
+     */
+    void add(String word) {
+        String key = word.toLowerCase(Locale.ROOT);
+        Node node = root;
+        int i = 0;
+        while (true) {
+            node.top = null;
+            if (i == key.length()) {
+                if (node.count++ == 0) {
+                    node.word = word;
+                }
+                return;
+            }
+            int c = node.childIndex(key.charAt(i));
+            if (c < 0) {
+                Node leaf = new Node(key.substring(i));
+                leaf.word = word;
+                leaf.count = 1;
+                node.insertChild(-c - 1, leaf);
+                return;
+            }
+            Node child = node.children[c];
+            int common = commonLength(child.label, key, i);
+            if (common < child.label.length()) {
+                // The word leaves this edge part way along; split it there
+                Node middle = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                middle.children = new Node[] { child };
+                node.children[c] = middle;
+                child = middle;
+            }
+            node = child;
+            i += common;
+        }
+    }
+
+    /**
+     * Counts one less use of a word, dropping it once it is no longer used.
+     *
+     * @param word The word.
+     */
+    void remove(String word) {
+        String key = word.toLowerCase(Locale.ROOT);
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            path.add(node);
+            int c = node.childIndex(key.charAt(i));
+            if (c < 0) {
+                return;
+            }
+            Node child = node.children[c];
+            if (!key.startsWith(child.label, i)) {
+                return;
+            }
+            node = child;
+            i += child.label.length();
+        }
+        if (node.count == 0) {
+            return;
+        }
+        for (Node n : path) {
+            n.top = null;
+        }
+        node.top = null;
+        if (--node.count > 0) {
+            return;
+        }
+        node.word = null;
+
+        // Keep the tree compact: drop an empty leaf and fold a node with a
+        // single child into that child
+        if (node != root && node.children.length == 0) {
+            Node parent = path.get(path.size() - 1);
+            parent.removeChild(parent.childIndex(node.label.charAt(0)));
+            node = parent;
+            path.remove(path.size() - 1);
+        }
+        if (node != root && node.count == 0 && node.children.length == 1) {
+            Node parent = path.get(path.size() - 1);
+            Node child = node.children[0];
+            child.label = node.label + child.label;
+            parent.children[parent.childIndex(node.label.charAt(0))] = child;
+        }
+    }
+
+    /**
+     * Finds the most used words starting with a prefix.
+     *
+     * @param prefix The prefix; an empty prefix matches every word.
+     * @param limit The most words to return, at most
+     *        {@link #MAX_SUGGESTIONS}.
+     * @return The words, most used first, in the spelling they were first
+     *         added with.
+     */
+    List<String> suggest(String prefix, int limit) {
+        String key = prefix.toLowerCase(Locale.ROOT);
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            int c = node.childIndex(key.charAt(i));
+            if (c < 0) {
+                return Collections.emptyList();
+            }
+            Node child = node.children[c];
+            int common = commonLength(child.label, key, i);
+            if (i + common < key.length() && common < child.label.length()) {
+                return Collections.emptyList();
+            }
+            node = child;
+            i += common;
+        }
+
+        Node[] top = node.top();
+        List<String> words = new ArrayList<>(Math.min(limit, top.length));
+        for (int k = 0; k < top.length && k < limit; k++) {
+            words.add(top[k].word);
+        }
+        return words;
+    }
+
+    private static int commonLength(String label, String key, int from) {
+        int n = Math.min(label.length(), key.length() - from);
+        int i = 0;
+        while (i < n && label.charAt(i) == key.charAt(from + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static final class Node {
+        String label; // lower-case characters on the edge from the parent
+        Node[] children = NONE; // ordered by the first character of their label
+        String word; // spelling of the word ending here, if count > 0
+        int count;
+        Node[] top; // best words in this subtree, best first; null when stale
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        int childIndex(char first) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char c = children[mid].label.charAt(0);
+                if (c < first) {
+                    low = mid + 1;
+                } else if (c > first) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        void insertChild(int index, Node child) {
+            Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, index);
+            grown[index] = child;
+            System.arraycopy(children, index, grown, index + 1, children.length - index);
+            children = grown;
+        }
+
+        void removeChild(int index) {
+            Node[] shrunk = new Node[children.length - 1];
+            System.arraycopy(children, 0, shrunk, 0, index);
+            System.arraycopy(children, index + 1, shrunk, index, shrunk.length - index);
+            children = shrunk;
+        }
+
+        Node[] top() {
+            if (top == null) {
+                List<Node> candidates = new ArrayList<>();
+                if (count > 0) {
+                    candidates.add(this);
+                }
+                for (Node child : children) {
+                    candidates.addAll(Arrays.asList(child.top()));
+                }
+                candidates.sort(BEST_FIRST);
+                top = candidates.subList(0, Math.min(MAX_SUGGESTIONS, candidates.size())).toArray(NONE);
+            }
+            return top;
+        }
+    }
+}
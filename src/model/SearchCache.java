@@ -0,0 +1,40 @@
+package model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Recent search results for one user, by normalized query. Every entry
+ * belongs to the library version it was found in; asking with a newer
+ * version throws them all away, so a cached result is never stale and
+ * stays valid for as long as the library is unchanged. The least recently
+ * used entries are dropped once the cache is full.
+ */
+class SearchCache {
+    private static final int MAX_ENTRIES = 32;
+
+    private final Map<String, PhotoQuery.Results> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, PhotoQuery.Results> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+    private long version;
+
+    /**
+     * Gets the results of a query, starting them if they are not cached.
+     *
+     * @param key The normalized query.
+     * @param version The current library version.
+     * @param start Starts the query's results on a miss.
+     * @return The cached or new results.
+     */
+    synchronized PhotoQuery.Results get(String key, long version, Supplier<PhotoQuery.Results> start) {
+        if (version != this.version) {
+            entries.clear();
+            this.version = version;
+        }
+        return entries.computeIfAbsent(key, k -> start.get());
+    }
+}
@@ -0,0 +1,40 @@
+package model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Canonical instances of the strings that repeat across a user's library:
+ * tag types, tag values and the directories photos live in. Photos keep
+ * the canonical instance, so a value like "location" or a shared folder
+ * path is held in memory once per user instead of once per photo.
+ * <p>
+ * Strings stay in the table until the user is unloaded, even if no photo
+ * uses them any more.
+ */
+class SymbolTable {
+    private final Map<String, String> symbols = new HashMap<>();
+
+    /**
+     * Gets the canonical instance of a string, adding it if it is new.
+     *
+     * @param s The string, or null.
+     * @return The canonical instance equal to the string, or null.
+     */
+    String intern(String s) {
+        if (s == null) {
+            return null;
+        }
+        String symbol = symbols.putIfAbsent(s, s);
+        return symbol == null ? s : symbol;
+    }
+
+    /**
+     * Gets the number of distinct strings in the table.
+     *
+     * @return The number of strings.
+     */
+    int size() {
+        return symbols.size();
+    }
+}
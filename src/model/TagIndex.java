@@ -0,0 +1,103 @@
+package model;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inverted index from tag type/value pairs to the photos carrying them.
+ * Types and values are matched case-insensitively, the same way tag
+ * search has always compared them. The index also completes partly typed
+ * tag types and values, suggesting the ones on the most photos first.
+ */
+public class TagIndex {
+    private final Map<String, Set<Photo>> postings = new HashMap<>();
+    private final PrefixIndex types = new PrefixIndex(); // counted once per tagged photo
+    private final Map<String, PrefixIndex> values = new HashMap<>(); // by lower-case type
+
+    /**
+     * Builds the lookup key for a tag type/value pair.
+     *
+     * @param tagType The tag type.
+     * @param tagValue The tag value.
+     * @return The normalized key.
+     */
+    static String key(String tagType, String tagValue) {
+        return tagType.toLowerCase(Locale.ROOT) + '\u0000' + tagValue.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Adds a photo to the posting set of a tag.
+     *
+     * @param photo The tagged photo.
+     * @param tagType The tag type.
+     * @param tagValue The tag value.
+     */
+    void add(Photo photo, String tagType, String tagValue) {
+        if (postings.computeIfAbsent(key(tagType, tagValue), k -> new LinkedHashSet<>()).add(photo)) {
+            types.add(tagType);
+            values.computeIfAbsent(tagType.toLowerCase(Locale.ROOT), k -> new PrefixIndex()).add(tagValue);
+        }
+    }
+
+    /**
+     * Removes a photo from the posting set of a tag.
+     *
+     * @param photo The photo to remove.
+     * @param tagType The tag type.
+     * @param tagValue The tag value.
+     */
+    void remove(Photo photo, String tagType, String tagValue) {
+        String key = key(tagType, tagValue);
+        Set<Photo> photos = postings.get(key);
+        if (photos != null && photos.remove(photo)) {
+            if (photos.isEmpty()) {
+                postings.remove(key);
+            }
+            types.remove(tagType);
+            values.get(tagType.toLowerCase(Locale.ROOT)).remove(tagValue);
+        }
+    }
+
+    /**
+     * Finds the photos carrying a tag.
+     *
+     * @param tagType The tag type.
+     * @param tagValue The tag value.
+     * @return The matching photos; empty if there are none.
+     */
+    public Set<Photo> find(String tagType, String tagValue) {
+        Set<Photo> photos = postings.get(key(tagType, tagValue));
+        return photos == null ? Collections.emptySet() : Collections.unmodifiableSet(photos);
+    }
+
+    /**
+     * Suggests tag types starting with what has been typed so far.
+     *
+     * @param prefix The start of a tag type.
+     * @param limit The most suggestions to return.
+     * @return The matching tag types, the ones on the most photos first.
+     */
+    public List<String> suggestTypes(String prefix, int limit) {
+        return types.suggest(prefix, Math.min(limit, PrefixIndex.MAX_SUGGESTIONS));
+    }
+
+    /**
+     * Suggests values of a tag type starting with what has been typed so
+     * far.
+     *
+     * @param tagType The tag type.
+     * @param prefix The start of a tag value.
+     * @param limit The most suggestions to return.
+     * @return The matching values, the ones on the most photos first.
+     */
+    public List<String> suggestValues(String tagType, String prefix, int limit) {
+        PrefixIndex typeValues = values.get(tagType.toLowerCase(Locale.ROOT));
+        return typeValues == null ? Collections.emptyList()
+                                  : typeValues.suggest(prefix, Math.min(limit, PrefixIndex.MAX_SUGGESTIONS));
+    }
+}
@@ -0,0 +1,140 @@
+package model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A photo's tags, kept as tag type and value pairs in a single array.
+ * Photos carry only a handful of tags, so a linear scan is as fast as
+ * hashing and needs a fraction of the memory; a photo without tags holds
+ * no array at all. Tags keep the order they were added in.
+ * <p>
+ * As a {@link Map} this is read-only. Tags are changed through
+ * {@link Photo}, which keeps the indexes and journal up to date.
+ */
+final class TagMap extends AbstractMap<String, String> {
+    private static final String[] EMPTY = new String[0];
+
+    private String[] entries = EMPTY; // type, value, type, value, ...
+    private int size;
+
+    /**
+     * Adds a tag or replaces the value of an existing tag of the same type.
+     *
+     * @param tagType The tag type.
+     * @param tagValue The tag value.
+     * @return The previous value, or null if the tag is new.
+     */
+    String putTag(String tagType, String tagValue) {
+        int i = indexOf(tagType);
+        if (i >= 0) {
+            String oldValue = entries[i + 1];
+            entries[i + 1] = tagValue;
+            return oldValue;
+        }
+        if (2 * size == entries.length) {
+            entries = Arrays.copyOf(entries, Math.max(4, entries.length * 2));
+        }
+        entries[2 * size] = tagType;
+        entries[2 * size + 1] = tagValue;
+        size++;
+        return null;
+    }
+
+    /**
+     * Removes a tag.
+     *
+     * @param tagType The tag type.
+     * @return The removed value, or null if there was no such tag.
+     */
+    String removeTag(String tagType) {
+        int i = indexOf(tagType);
+        if (i < 0) {
+            return null;
+        }
+        String oldValue = entries[i + 1];
+        System.arraycopy(entries, i + 2, entries, i, 2 * size - i - 2);
+        size--;
+        entries[2 * size] = null;
+        entries[2 * size + 1] = null;
+        if (size == 0) {
+            entries = EMPTY;
+        }
+        return oldValue;
+    }
+
+    /**
+     * Replaces every tag type and value with the canonical instance from a
+     * symbol table.
+     *
+     * @param symbols The symbol table.
+     */
+    void intern(SymbolTable symbols) {
+        for (int i = 0; i < 2 * size; i++) {
+            entries[i] = symbols.intern(entries[i]);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public String get(Object key) {
+        int i = indexOf(key);
+        return i < 0 ? null : entries[i + 1];
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                return new Iterator<>() {
+                    private int next;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < size;
+                    }
+
+                    @Override
+                    public Entry<String, String> next() {
+                        if (next >= size) {
+                            throw new NoSuchElementException();
+                        }
+                        Entry<String, String> entry =
+                            new SimpleImmutableEntry<>(entries[2 * next], entries[2 * next + 1]);
+                        next++;
+                        return entry;
+                    }
+                };
+            }
+        };
+    }
+
+    private int indexOf(Object tagType) {
+        for (int i = 0; i < 2 * size; i += 2) {
+            if (entries[i].equals(tagType)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -2,7 +2,10 @@ package model;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 /**
  * Represents a user in the Photo App.
@@ -12,6 +15,10 @@ public class User implements Serializable {
     
     private String username;
     private List<Album> albums;
+    private transient Journal journal;
+    private transient LibraryIndex index;
+    private transient SymbolTable symbols;
+    private transient Map<String, Album> albumsByName; // lower-case name -> album
     
     /**
      * Creates a new user with the specified username.
@@ -48,6 +55,17 @@ public class User implements Serializable {
      */
     public void addAlbum(Album album) {
         albums.add(album);
+        albumsByName().putIfAbsent(key(album.getName()), album);
+        album.setOwner(this);
+        if (index != null) {
+            index.albumsChanged();
+            for (Photo photo : album.getPhotos()) {
+                index.photoAdded(album, photo);
+            }
+        }
+        if (journal != null) {
+            journal.addAlbum(username, album.getName());
+        }
     }
     
     /**
@@ -57,7 +75,20 @@ public class User implements Serializable {
      * @return true if the album was removed, false otherwise.
      */
     public boolean removeAlbum(Album album) {
-        return albums.remove(album);
+        boolean removed = albums.remove(album);
+        if (removed) {
+            unindexName(album, album.getName());
+        }
+        if (removed && index != null) {
+            index.albumsChanged();
+            for (Photo photo : album.getPhotos()) {
+                index.photoRemoved(album, photo);
+            }
+        }
+        if (removed && journal != null) {
+            journal.deleteAlbum(username, album.getName());
+        }
+        return removed;
     }
     
     /**
@@ -67,12 +98,7 @@ public class User implements Serializable {
      * @return true if an album with the specified name exists, false otherwise.
      */
     public boolean hasAlbumWithName(String albumName) {
-        for (Album album : albums) {
-            if (album.getName().equals(albumName)) {
-                return true;
-            }
-        }
-        return false;
+        return getAlbumByName(albumName) != null;
     }
     
     /**
@@ -82,14 +108,219 @@ public class User implements Serializable {
      * @return The album with the specified name, or null if no such album exists.
      */
     public Album getAlbumByName(String albumName) {
-        for (Album album : albums) {
-            if (album.getName().equals(albumName)) {
-                return album;
+        Album album = getAlbumByNameIgnoreCase(albumName);
+        if (album == null || album.getName().equals(albumName)) {
+            return album;
+        }
+        // Albums whose names differ only in case share an index entry
+        for (Album a : albums) {
+            if (a.getName().equals(albumName)) {
+                return a;
             }
         }
         return null;
     }
     
+    /**
+     * Gets an album by its name, ignoring case. Album names are kept unique
+     * ignoring case, so this is the lookup to use when checking a new name.
+     * 
+     * @param albumName The name of the album to retrieve.
+     * @return An album with the specified name, or null if no such album exists.
+     */
+    public Album getAlbumByNameIgnoreCase(String albumName) {
+        return albumsByName().get(key(albumName));
+    }
+    
+    /**
+     * Finds a photo with the specified file path in any of this user's albums.
+     * This is how a photo already imported into one album is shared with
+     * another, and is a single lookup in the user's photo registry.
+     * 
+     * @param filePath The file path to search for.
+     * @return The matching photo, or null if no album contains it.
+     */
+    public Photo findPhoto(String filePath) {
+        return index().findPhoto(filePath);
+    }
+    
+    /**
+     * Gets the albums that hold a photo. This is a lookup in the user's photo
+     * registry, so it does not depend on how many albums the user has.
+     * 
+     * @param photo The photo.
+     * @return The albums holding the photo, read-only; empty if the photo is
+     *         in none of this user's albums.
+     */
+    public List<Album> getAlbumsContaining(Photo photo) {
+        return index().albumsContaining(photo);
+    }
+    
+    /**
+     * Removes a photo from every album that holds it.
+     * 
+     * @param photo The photo to remove.
+     * @return The number of albums the photo was removed from.
+     */
+    public int removePhotoFromAllAlbums(Photo photo) {
+        List<Album> containing = new ArrayList<>(getAlbumsContaining(photo));
+        for (Album album : containing) {
+            album.removePhoto(photo);
+        }
+        return containing.size();
+    }
+    
+    /**
+     * Moves a photo from one album to another as a single change.
+     * 
+     * @param photo The photo to move.
+     * @param from The album the photo is moved out of.
+     * @param to The album the photo is moved into.
+     */
+    public void movePhoto(Photo photo, Album from, Album to) {
+        Journal saved = journal;
+        journal = null;
+        try {
+            if (!to.getPhotos().contains(photo)) {
+                to.addPhoto(photo);
+            }
+            from.removePhoto(photo);
+        } finally {
+            journal = saved;
+        }
+        if (journal != null) {
+            journal.movePhoto(username, from.getName(), to.getName(), photo.getFilePath());
+        }
+    }
+    
+    /**
+     * Connects this user and everything it owns to a journal, so that later
+     * changes are recorded. Pass null to stop recording.
+     * 
+     * @param journal The journal to record changes in, or null.
+     */
+    void attach(Journal journal) {
+        this.journal = journal;
+        for (Album album : albums) {
+            album.setOwner(this);
+        }
+    }
+    
+    /**
+     * Gets the inverted tag index over this user's photos, building it on
+     * first use.
+     * 
+     * @return The tag index.
+     */
+    public TagIndex getTagIndex() {
+        return index().getTags();
+    }
+    
+    /**
+     * Gets the index of this user's photos ordered by date taken, building
+     * it on first use.
+     * 
+     * @return The date index.
+     */
+    public DateIndex getDateIndex() {
+        return index().getDates();
+    }
+    
+    /**
+     * Gets this user's indexes, building them from the albums if needed.
+     * 
+     * @return The indexes.
+     */
+    LibraryIndex index() {
+        if (index == null) {
+            for (Album album : albums) {
+                album.setOwner(this);
+            }
+            index = new LibraryIndex(albums);
+        }
+        return index;
+    }
+    
+    /**
+     * Updates the album name index after an album has been renamed.
+     * 
+     * @param album The renamed album.
+     * @param oldName The album's previous name.
+     */
+    void albumRenamed(Album album, String oldName) {
+        unindexName(album, oldName);
+        albumsByName().putIfAbsent(key(album.getName()), album);
+        if (index != null) {
+            index.albumsChanged();
+        }
+    }
+    
+    /**
+     * Removes an album's entry from the name index. If another album has the
+     * same name ignoring case, it takes over the entry.
+     */
+    private void unindexName(Album album, String name) {
+        String key = key(name);
+        if (albumsByName().get(key) != album) {
+            return;
+        }
+        albumsByName.remove(key);
+        for (Album a : albums) {
+            if (a != album && key(a.getName()).equals(key)) {
+                albumsByName.put(key, a);
+                break;
+            }
+        }
+    }
+    
+    /**
+     * Gets the album name index, building it from the albums if needed.
+     */
+    private Map<String, Album> albumsByName() {
+        if (albumsByName == null) {
+            albumsByName = new HashMap<>();
+            for (Album album : albums) {
+                albumsByName.putIfAbsent(key(album.getName()), album);
+            }
+        }
+        return albumsByName;
+    }
+    
+    private static String key(String albumName) {
+        return albumName.toLowerCase(Locale.ROOT);
+    }
+    
+    /**
+     * Gets the table of shared strings used by this user's photos.
+     * 
+     * @return The symbol table.
+     */
+    SymbolTable symbols() {
+        if (symbols == null) {
+            symbols = new SymbolTable();
+        }
+        return symbols;
+    }
+    
+    /**
+     * Gets this user's indexes only if they have already been built. Model
+     * changes made before that are picked up when the indexes are built.
+     * 
+     * @return The indexes, or null if they have not been built.
+     */
+    LibraryIndex indexIfBuilt() {
+        return index;
+    }
+    
+    /**
+     * Gets the journal changes to this user are recorded in.
+     * 
+     * @return The journal, or null if changes are not being recorded.
+     */
+    Journal getJournal() {
+        return journal;
+    }
+    
     @Override
     public boolean equals(Object obj) {
         if (this == obj) return true;
@@ -0,0 +1,267 @@
+package model;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary snapshot format for a single user. Every distinct string is
+ * written once to a string table and referred to by index, every photo is
+ * written once and albums list their photos by index, and dates are stored
+ * as epoch seconds and nanoseconds in UTC. Photo paths are stored as a
+ * directory and a file name, so a folder shared by many photos is stored
+ * once.
+ * <p>
+ * Layout, version 2:
+ * <pre>
+ * int magic, int version, long generation
+ * int stringCount, (int length, UTF-8 bytes)*
+ * int username
+ * int photoCount, (int directory, int fileName, int caption, long epochSecond,
+ *                  int nano, int tagCount, (int type, int value)*)*
+ * int albumCount, (int name, int size, (int photo)*)*
+ * </pre>
+ * String references are indexes into the string table, or -1 for null.
+ * Version 1 stored a single full path reference in place of the directory
+ * and file name, and can still be read.
+ * Snapshots are encoded and decoded in memory as a whole, which avoids the
+ * per-field overhead of going through data streams.
+ */
+class UserCodec {
+    private static final int MAGIC = 0x50485553; // "PHUS"
+    private static final int VERSION = 2;
+    private static final int PHOTO_BYTES = 28; // smallest photo record: no tags
+    private static final int PHOTO_BYTES_V1 = 24;
+
+    private UserCodec() {
+    }
+
+    /**
+     * A user read from a snapshot, along with the snapshot's generation.
+     *
+     * @param user The user.
+     * @param generation The snapshot generation its journal must match.
+     */
+    record Snapshot(User user, long generation) {
+    }
+
+    /**
+     * Encodes a user in the binary snapshot format.
+     *
+     * @param user The user to encode.
+     * @param generation The snapshot generation.
+     * @return The encoded snapshot.
+     */
+    static byte[] write(User user, long generation) {
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        Map<Photo, Integer> photoIds = new IdentityHashMap<>();
+        List<Photo> photos = new ArrayList<>();
+
+        intern(strings, user.getUsername());
+        for (Album album : user.getAlbums()) {
+            intern(strings, album.getName());
+            for (Photo photo : album.getPhotos()) {
+                if (photoIds.putIfAbsent(photo, photos.size()) == null) {
+                    photos.add(photo);
+                    intern(strings, photo.getDirectory());
+                    intern(strings, photo.getFileName());
+                    intern(strings, photo.getCaption());
+                    for (Map.Entry<String, String> tag : photo.getTags().entrySet()) {
+                        intern(strings, tag.getKey());
+                        intern(strings, tag.getValue());
+                    }
+                }
+            }
+        }
+
+        Output out = new Output();
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(generation);
+
+        out.writeInt(strings.size());
+        for (String s : strings.keySet()) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        out.writeInt(ref(strings, user.getUsername()));
+
+        out.writeInt(photos.size());
+        for (Photo photo : photos) {
+            out.writeInt(ref(strings, photo.getDirectory()));
+            out.writeInt(ref(strings, photo.getFileName()));
+            out.writeInt(ref(strings, photo.getCaption()));
+            out.writeLong(photo.getEpochSecond());
+            out.writeInt(photo.getNano());
+            Map<String, String> tags = photo.getTags();
+            out.writeInt(tags.size());
+            for (Map.Entry<String, String> tag : tags.entrySet()) {
+                out.writeInt(ref(strings, tag.getKey()));
+                out.writeInt(ref(strings, tag.getValue()));
+            }
+        }
+
+        out.writeInt(user.getAlbums().size());
+        for (Album album : user.getAlbums()) {
+            out.writeInt(ref(strings, album.getName()));
+            out.writeInt(album.getPhotos().size());
+            for (Photo photo : album.getPhotos()) {
+                out.writeInt(photoIds.get(photo));
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes a user encoded by {@link #write}.
+     *
+     * @param data The encoded snapshot.
+     * @return The user and the snapshot generation.
+     * @throws IOException If the data is not a snapshot in a supported
+     *         version, is cut short or is otherwise damaged.
+     */
+    static Snapshot read(byte[] data) throws IOException {
+        try {
+            return read(ByteBuffer.wrap(data));
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated user snapshot", e);
+        } catch (RuntimeException e) {
+            // Damaged data surfaces as bad positions, dates or paths while building the model
+            throw new IOException("Corrupt user snapshot", e);
+        }
+    }
+
+    private static Snapshot read(ByteBuffer in) throws IOException {
+        if (in.getInt() != MAGIC) {
+            throw new IOException("Not a user snapshot");
+        }
+        int version = in.getInt();
+        if (version != 1 && version != VERSION) {
+            throw new IOException("Unsupported user snapshot version: " + version);
+        }
+        long generation = in.getLong();
+
+        String[] strings = new String[count(in, 4)];
+        for (int i = 0; i < strings.length; i++) {
+            int length = count(in, 1);
+            strings[i] = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+            in.position(in.position() + length);
+        }
+
+        User user = new User(string(strings, in.getInt()));
+
+        Photo[] photos = new Photo[count(in, version == 1 ? PHOTO_BYTES_V1 : PHOTO_BYTES)];
+        for (int i = 0; i < photos.length; i++) {
+            String path = version == 1 ? string(strings, in.getInt()) : null;
+            String directory = path == null ? string(strings, in.getInt()) : null;
+            String fileName = path == null ? string(strings, in.getInt()) : null;
+            String caption = string(strings, in.getInt());
+            LocalDateTime dateTime = LocalDateTime.ofEpochSecond(in.getLong(), in.getInt(), ZoneOffset.UTC);
+            Photo photo = path != null ? new Photo(path, dateTime) : new Photo(directory, fileName, dateTime);
+            photo.setCaption(caption);
+            int tagCount = count(in, 8);
+            for (int t = 0; t < tagCount; t++) {
+                photo.addTag(string(strings, in.getInt()), string(strings, in.getInt()));
+            }
+            photos[i] = photo;
+        }
+
+        int albumCount = count(in, 8);
+        for (int i = 0; i < albumCount; i++) {
+            Album album = new Album(string(strings, in.getInt()));
+            int size = count(in, 4);
+            for (int p = 0; p < size; p++) {
+                int id = in.getInt();
+                if (id < 0 || id >= photos.length) {
+                    throw new IOException("Bad photo reference: " + id);
+                }
+                album.addPhoto(photos[id]);
+            }
+            user.addAlbum(album);
+        }
+        return new Snapshot(user, generation);
+    }
+
+    /**
+     * Reads a count of items that follow and checks that the rest of the
+     * data could hold that many, so a damaged count is reported rather than
+     * used to size an array.
+     *
+     * @param minBytes The fewest bytes each item takes.
+     */
+    private static int count(ByteBuffer in, int minBytes) throws IOException {
+        int count = in.getInt();
+        if (count < 0 || count > in.remaining() / minBytes) {
+            throw new IOException("Bad count in user snapshot: " + count);
+        }
+        return count;
+    }
+
+    private static void intern(Map<String, Integer> strings, String s) {
+        if (s != null) {
+            strings.putIfAbsent(s, strings.size());
+        }
+    }
+
+    private static int ref(Map<String, Integer> strings, String s) {
+        return s == null ? -1 : strings.get(s);
+    }
+
+    private static String string(String[] strings, int ref) throws IOException {
+        if (ref == -1) {
+            return null;
+        }
+        if (ref < 0 || ref >= strings.length) {
+            throw new IOException("Bad string reference: " + ref);
+        }
+        return strings[ref];
+    }
+
+    /**
+     * Growable byte buffer the snapshot is encoded into.
+     */
+    private static class Output {
+        private byte[] buf = new byte[8192];
+        private int size;
+
+        void writeInt(int v) {
+            ensure(4);
+            buf[size++] = (byte) (v >>> 24);
+            buf[size++] = (byte) (v >>> 16);
+            buf[size++] = (byte) (v >>> 8);
+            buf[size++] = (byte) v;
+        }
+
+        void writeLong(long v) {
+            writeInt((int) (v >>> 32));
+            writeInt((int) v);
+        }
+
+        void write(byte[] bytes) {
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buf, size, bytes.length);
+            size += bytes.length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buf, size);
+        }
+
+        private void ensure(int n) {
+            if (size + n > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, size + n));
+            }
+        }
+    }
+}
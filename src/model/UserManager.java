@@ -1,26 +1,41 @@
 package model;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Manages users in the Photo App, including authentication and persistence.
+ * Each user is stored in its own shard, and a small index lists the users
+ * and their shards, so only the logged-in user's data is read from disk.
  */
 public class UserManager {
     private static final String DATA_DIR = "data";
-    private static final String USERS_FILE = DATA_DIR + File.separator + "users.ser";
+    private static final String SHARD_DIR = DATA_DIR + File.separator + "users";
+    private static final String INDEX_FILE = DATA_DIR + File.separator + "users.idx";
+    private static final String LEGACY_USERS_FILE = DATA_DIR + File.separator + "users.ser";
+    private static final String LEGACY_JOURNAL_FILE = DATA_DIR + File.separator + "users.journal";
     private static final String STOCK_FOLDER = "stock";
+    static final long COMPACT_THRESHOLD = 1024 * 1024; // journal bytes before a new snapshot
+    private static final int INDEX_MAGIC = 0x50484958; // "PHIX"
     
-    private List<User> users;
+    private Map<String, UserShard> shards; // username -> shard, in creation order
+    private int nextShardId;
     private User currentUser;
+    private final Map<String, String> lastQueries = new HashMap<>(); // username -> last search, this session
     
     /**
-     * Creates a new UserManager and loads existing users from disk.
+     * Creates a new UserManager and reads the user index from disk.
      */
     public UserManager() {
-        users = new ArrayList<>();
+        shards = new LinkedHashMap<>();
         loadUsers();
         
         // Ensure admin user exists
@@ -42,8 +57,7 @@ public class UserManager {
             //System.out.println("Stock user found: " + stockUser.getUsername());
     
             // Check if the "dylan" album already exists
-            boolean albumExists = stockUser.getAlbums().stream()
-                .anyMatch(album -> album.getName().equalsIgnoreCase("stock"));
+            boolean albumExists = stockUser.getAlbumByNameIgnoreCase("stock") != null;
     
             if (!albumExists) {
                 //System.out.println("Adding 'dylan' album to stock user");
@@ -85,12 +99,7 @@ public class UserManager {
      * @return true if a user with the specified username exists, false otherwise.
      */
     public boolean userExists(String username) {
-        for (User user : users) {
-            if (user.getUsername().equals(username)) {
-                return true;
-            }
-        }
-        return false;
+        return shards.containsKey(username);
     }
     
     /**
@@ -105,8 +114,10 @@ public class UserManager {
         }
         
         User newUser = new User(username);
-        users.add(newUser);
-        saveUsers();
+        UserShard shard = new UserShard(new File(SHARD_DIR), nextShardId++);
+        shard.create(newUser);
+        shards.put(username, shard);
+        saveIndex();
         return true;
     }
     
@@ -122,38 +133,66 @@ public class UserManager {
             return false;
         }
         
-        for (int i = 0; i < users.size(); i++) {
-            if (users.get(i).getUsername().equals(username)) {
-                users.remove(i);
-                saveUsers();
-                return true;
-            }
+        UserShard shard = shards.remove(username);
+        if (shard == null) {
+            return false;
         }
-        return false;
+        if (currentUser != null && currentUser.getUsername().equals(username)) {
+            currentUser = null;
+        }
+        lastQueries.remove(username);
+        saveIndex();
+        shard.delete();
+        return true;
     }
     
     /**
-     * Gets a user by their username.
+     * Gets a user by their username, loading that user's shard from disk if
+     * it is not in memory yet.
      * 
      * @param username The username of the user to retrieve.
      * @return The user with the specified username, or null if no such user exists.
      */
     public User getUser(String username) {
-        for (User user : users) {
-            if (user.getUsername().equals(username)) {
-                return user;
-            }
-        }
-        return null;
+        UserShard shard = shards.get(username);
+        return shard == null ? null : shard.load();
+    }
+    
+    /**
+     * Gets every user's shard without loading any of their data, copied so
+     * that work on other threads can use it while users are added or
+     * removed.
+     * 
+     * @return The shards by username, in creation order.
+     */
+    Map<String, UserShard> getShards() {
+        return new LinkedHashMap<>(shards);
     }
     
     /**
-     * Gets all users.
+     * Gets the names of all users without loading any of their data.
+     * 
+     * @return The list of usernames, in creation order.
+     */
+    public List<String> getUsernames() {
+        return new ArrayList<>(shards.keySet());
+    }
+    
+    /**
+     * Gets all users. This loads every user's shard, so prefer
+     * {@link #getUsernames()} when only the names are needed.
      * 
      * @return The list of all users.
      */
     public List<User> getAllUsers() {
-        return new ArrayList<>(users);
+        List<User> users = new ArrayList<>();
+        for (String username : shards.keySet()) {
+            User user = getUser(username);
+            if (user != null) {
+                users.add(user);
+            }
+        }
+        return users;
     }
     
     /**
@@ -172,15 +211,43 @@ public class UserManager {
     }
     
     /**
-     * Logs out the current user.
+     * Logs out the current user. Every loaded shard is saved and dropped
+     * from memory, so the next login starts from the index alone.
      */
     public void logout() {
         if (currentUser != null) {
-            saveUsers(); // Save user data before logging out
+            BackgroundSaver.getInstance().flush();
+            for (UserShard shard : shards.values()) {
+                shard.unload(COMPACT_THRESHOLD); // Save user data before logging out
+            }
+            lastQueries.remove(currentUser.getUsername());
             currentUser = null;
         }
     }
     
+    /**
+     * Gets the text of the current user's last search in this session, so
+     * the search screen can show it again.
+     * 
+     * @return The query text, or null if the user has not searched since
+     *         logging in.
+     */
+    public String getLastQuery() {
+        return currentUser == null ? null : lastQueries.get(currentUser.getUsername());
+    }
+    
+    /**
+     * Remembers the text of the current user's last search until they log
+     * out or are deleted.
+     * 
+     * @param query The query text.
+     */
+    public void setLastQuery(String query) {
+        if (currentUser != null) {
+            lastQueries.put(currentUser.getUsername(), query);
+        }
+    }
+    
     /**
      * Gets the currently logged-in user.
      * 
@@ -200,39 +267,195 @@ public class UserManager {
     }
     
     /**
-     * Loads users from disk.
+     * Reads the user index from disk. If there is no index yet but a users
+     * file from the old single-file format exists, it is split into shards.
+     * An index that cannot be read is rebuilt from the shard files, and new
+     * shards are always numbered past every shard file on disk, so no
+     * user's files are ever reused for another user.
      */
-    @SuppressWarnings("unchecked")
     private void loadUsers() {
-        File dir = new File(DATA_DIR);
+        File dir = new File(SHARD_DIR);
         if (!dir.exists()) {
             dir.mkdirs();
         }
         
-        File file = new File(USERS_FILE);
-        if (file.exists() && file.length() > 0) {
-            try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file))) {
-                users = (List<User>) ois.readObject();
-            } catch (IOException | ClassNotFoundException e) {
+        File index = new File(INDEX_FILE);
+        if (index.exists() && index.length() > 0) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(index)))) {
+                if (in.readInt() != INDEX_MAGIC) {
+                    throw new IOException("Not a user index: " + index);
+                }
+                nextShardId = in.readInt();
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    String username = in.readUTF();
+                    shards.put(username, new UserShard(dir, in.readInt()));
+                }
+            } catch (IOException e) {
                 e.printStackTrace();
-                users = new ArrayList<>();
+                rebuildIndex(dir);
             }
+        } else {
+            migrateLegacyUsers();
         }
+        nextShardId = Math.max(nextShardId, highestShardId(dir) + 1);
     }
     
     /**
-     * Saves users to disk.
+     * Recovers the user index from the shard snapshots when the index file
+     * is damaged. Each snapshot records its user's name; shards that cannot
+     * be read are left on disk untouched.
      */
-    public void saveUsers() {
-        File dir = new File(DATA_DIR);
-        if (!dir.exists()) {
-            dir.mkdirs();
+    private void rebuildIndex(File dir) {
+        shards.clear();
+        List<Integer> ids = new ArrayList<>();
+        for (String name : listShardFiles(dir)) {
+            int id = shardId(name);
+            if ((name.endsWith(".dat") || name.endsWith(".ser")) && !ids.contains(id)) {
+                ids.add(id);
+            }
+        }
+        Collections.sort(ids);
+        for (int id : ids) {
+            UserShard shard = new UserShard(dir, id);
+            User user = shard.load();
+            if (user != null && !shards.containsKey(user.getUsername())) {
+                shards.put(user.getUsername(), shard);
+            } else {
+                System.err.println("Could not recover shard " + id + " into the user index");
+            }
+        }
+        nextShardId = highestShardId(dir) + 1;
+        saveIndex();
+    }
+    
+    /**
+     * Finds the highest shard id used by any file in the shard directory.
+     * 
+     * @return The highest id, or -1 if there are no shard files.
+     */
+    private static int highestShardId(File dir) {
+        int highest = -1;
+        for (String name : listShardFiles(dir)) {
+            highest = Math.max(highest, shardId(name));
+        }
+        return highest;
+    }
+    
+    private static List<String> listShardFiles(File dir) {
+        List<String> names = new ArrayList<>();
+        String[] files = dir.list();
+        if (files != null) {
+            for (String name : files) {
+                if (shardId(name) >= 0) {
+                    names.add(name);
+                }
+            }
+        }
+        return names;
+    }
+    
+    /**
+     * Gets the shard id from a shard file name such as "user-3.dat".
+     * 
+     * @return The id, or -1 if the name is not a shard file.
+     */
+    private static int shardId(String fileName) {
+        if (!fileName.startsWith("user-")) {
+            return -1;
+        }
+        int dot = fileName.indexOf('.');
+        try {
+            return dot < 0 ? -1 : Integer.parseInt(fileName.substring("user-".length(), dot));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+    
+    /**
+     * Splits the old single users file, plus any journal written against it,
+     * into one shard per user. The old users file is kept as a backup.
+     */
+    @SuppressWarnings("unchecked")
+    private void migrateLegacyUsers() {
+        File file = new File(LEGACY_USERS_FILE);
+        if (!file.exists() || file.length() == 0) {
+            return;
+        }
+        
+        List<User> users;
+        long generation;
+        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file))) {
+            users = (List<User>) ois.readObject();
+            try {
+                generation = ois.readLong();
+            } catch (EOFException e) {
+                generation = 0; // written before the journal existed
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            e.printStackTrace();
+            return;
+        }
+        
+        File legacyJournal = new File(LEGACY_JOURNAL_FILE);
+        if (legacyJournal.exists()) {
+            try {
+                Journal.open(legacyJournal, generation, users).close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
         }
         
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(USERS_FILE))) {
-            oos.writeObject(users);
+        for (User user : users) {
+            UserShard shard = new UserShard(new File(SHARD_DIR), nextShardId++);
+            shard.create(user);
+            shard.unload(COMPACT_THRESHOLD);
+            shards.put(user.getUsername(), shard);
+        }
+        saveIndex();
+        
+        legacyJournal.delete();
+        file.renameTo(new File(LEGACY_USERS_FILE + ".bak"));
+    }
+    
+    /**
+     * Writes the user index. The index is written to a temporary file first
+     * so a crash never leaves a half-written index behind.
+     */
+    private void saveIndex() {
+        File index = new File(INDEX_FILE);
+        File tmp = new File(INDEX_FILE + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(INDEX_MAGIC);
+            out.writeInt(nextShardId);
+            out.writeInt(shards.size());
+            for (Map.Entry<String, UserShard> entry : shards.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeInt(entry.getValue().getId());
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        
+        try {
+            Files.move(tmp.toPath(), index.toPath(),
+                       StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * Saves users to disk in the background. Edits made in quick succession
+     * are written together shortly afterwards, off the calling thread. A
+     * journal that has grown past the compaction threshold is folded into a
+     * new snapshot straight away, so journals stay bounded however long a
+     * user stays logged in.
+     */
+    public void saveUsers() {
+        for (UserShard shard : shards.values()) {
+            shard.saveLater(COMPACT_THRESHOLD);
+        }
+    }
+}
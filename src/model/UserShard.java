@@ -0,0 +1,242 @@
+package model;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Storage for a single user's albums, photos and tags. Each shard has its
+ * own snapshot file and journal, so a user's data is only read from disk
+ * when that user is actually needed. Snapshots are written in the
+ * {@link UserCodec} format; shards still holding a Java-serialized snapshot
+ * from before that format existed are converted the first time they load.
+ * <p>
+ * A shard may be loaded by a search thread while the FX thread saves or
+ * unloads it, so every method that touches the user or journal holds the
+ * shard's lock.
+ */
+class UserShard {
+    private final int id;
+    private final File snapshotFile;
+    private final File legacySnapshotFile;
+    private final File journalFile;
+
+    private User user;
+    private Journal journal;
+    private long generation;
+
+    /**
+     * Creates a shard handle. Nothing is read until {@link #load()} is called.
+     *
+     * @param dir The directory holding shard files.
+     * @param id The shard id recorded in the user index.
+     */
+    UserShard(File dir, int id) {
+        this.id = id;
+        this.snapshotFile = new File(dir, "user-" + id + ".dat");
+        this.legacySnapshotFile = new File(dir, "user-" + id + ".ser");
+        this.journalFile = new File(dir, "user-" + id + ".journal");
+    }
+
+    /**
+     * Gets the shard id recorded in the user index.
+     *
+     * @return The shard id.
+     */
+    int getId() {
+        return id;
+    }
+
+    /**
+     * Checks whether this shard's user is currently in memory.
+     *
+     * @return true if the user has been loaded, false otherwise.
+     */
+    synchronized boolean isLoaded() {
+        return user != null;
+    }
+
+    /**
+     * Gets this shard's user, reading the snapshot and replaying the journal
+     * the first time it is asked for.
+     *
+     * @return The user, or null if the shard could not be read.
+     */
+    synchronized User load() {
+        if (user != null) {
+            return user;
+        }
+
+        boolean legacy = !snapshotFile.exists() && legacySnapshotFile.exists();
+        User loaded = legacy ? readLegacySnapshot() : readSnapshot();
+        if (loaded == null) {
+            return null;
+        }
+
+        List<User> replayed = new ArrayList<>();
+        replayed.add(loaded);
+        try {
+            journal = Journal.open(journalFile, generation, replayed);
+        } catch (IOException e) {
+            e.printStackTrace();
+            journal = null;
+        }
+        user = loaded;
+        user.attach(journal);
+        if (legacy) {
+            writeSnapshot();
+            if (snapshotFile.exists()) {
+                legacySnapshotFile.delete();
+            }
+        }
+        return user;
+    }
+
+    private User readSnapshot() {
+        try {
+            UserCodec.Snapshot snapshot = UserCodec.read(Files.readAllBytes(snapshotFile.toPath()));
+            generation = snapshot.generation();
+            return snapshot.user();
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Reads a snapshot written with Java serialization, the format used
+     * before {@link UserCodec}.
+     */
+    private User readLegacySnapshot() {
+        try (ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(new FileInputStream(legacySnapshotFile)))) {
+            User loaded = (User) ois.readObject();
+            generation = ois.readLong();
+            return loaded;
+        } catch (IOException | ClassNotFoundException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Stores a user that is not on disk yet, such as a newly created user or
+     * one migrated from the old single-file format.
+     *
+     * @param newUser The user to store in this shard.
+     */
+    synchronized void create(User newUser) {
+        user = newUser;
+        writeSnapshot();
+        user.attach(journal);
+    }
+
+    /**
+     * Saves pending changes. Journal records are flushed, and once the journal
+     * grows past the threshold it is folded into a new snapshot. Shards that
+     * are not loaded have nothing to save.
+     *
+     * @param compactThreshold The journal size in bytes that triggers a new snapshot.
+     */
+    synchronized void save(long compactThreshold) {
+        if (user == null) {
+            return;
+        }
+        if (journal == null || journal.size() > compactThreshold) {
+            writeSnapshot();
+        } else {
+            journal.flush();
+        }
+    }
+
+    /**
+     * Saves pending changes in the background. Journal records are handed to
+     * the {@link BackgroundSaver}. Folding the journal into a new snapshot
+     * reads the whole model, so once the journal passes the threshold that
+     * is done here, on the calling thread. Shards that are not loaded have
+     * nothing to save.
+     *
+     * @param compactThreshold The journal size in bytes that triggers a new snapshot.
+     */
+    synchronized void saveLater(long compactThreshold) {
+        if (user == null) {
+            return;
+        }
+        if (journal == null || journal.size() > compactThreshold) {
+            writeSnapshot();
+        } else {
+            BackgroundSaver.getInstance().markDirty(journal);
+        }
+    }
+
+    /**
+     * Saves pending changes and drops the user from memory.
+     *
+     * @param compactThreshold The journal size in bytes that triggers a new snapshot.
+     */
+    synchronized void unload(long compactThreshold) {
+        save(compactThreshold);
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+        if (user != null) {
+            user.attach(null);
+            user = null;
+        }
+    }
+
+    /**
+     * Removes this shard's files from disk.
+     */
+    synchronized void delete() {
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+        if (user != null) {
+            user.attach(null);
+            user = null;
+        }
+        snapshotFile.delete();
+        legacySnapshotFile.delete();
+        journalFile.delete();
+    }
+
+    /**
+     * Writes the user to a new snapshot and starts an empty journal for it.
+     * The snapshot is written to a temporary file first so a crash never
+     * leaves a half-written shard behind.
+     */
+    private void writeSnapshot() {
+        File tmp = new File(snapshotFile.getPath() + ".tmp");
+        long next = generation + 1;
+        try {
+            Files.write(tmp.toPath(), UserCodec.write(user, next));
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        try {
+            Files.move(tmp.toPath(), snapshotFile.toPath(),
+                       StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        generation = next;
+        try {
+            if (journal == null) {
+                journal = Journal.open(journalFile, generation, new ArrayList<>());
+                user.attach(journal);
+            } else {
+                journal.reset(generation);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+import controller.AlbumTileController;
+import controller.PhotoTileController;
+import javafx.application.Platform;
+import model.Album;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Measures how long it takes to build a photo tile and an album tile, the
+ * cost paid for every tile a grid or album list shows.
+ * <p>
+ * Compile against the application classes and JavaFX, then run on a
+ * machine with a display (or with a headless Glass platform such as
+ * Monocle):
+ * <pre>
+ * javac --module-path $FX --add-modules javafx.controls,javafx.fxml -cp out -d bench tools/bench/TileBench.java
+ * java --module-path $FX --add-modules javafx.controls,javafx.fxml -cp out:bench TileBench
+ * </pre>
+ */
+public class TileBench {
+    private static final int TILES = 1000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        Platform.startup(started::countDown);
+        started.await();
+
+        // Tiles are scene graph nodes, so they are built on the FX thread
+        FutureTask<String> bench = new FutureTask<>(() -> {
+            StringBuilder report = new StringBuilder();
+            Album album = new Album("bench");
+            for (int round = 0; round < ROUNDS; round++) {
+                long t0 = System.nanoTime();
+                for (int i = 0; i < TILES; i++) {
+                    new PhotoTileController();
+                }
+                long t1 = System.nanoTime();
+                for (int i = 0; i < TILES; i++) {
+                    new AlbumTileController(album);
+                }
+                long t2 = System.nanoTime();
+                report.append(String.format("round %d: photo tile %.1f us, album tile %.1f us%n",
+                    round, (t1 - t0) / 1e3 / TILES, (t2 - t1) / 1e3 / TILES));
+            }
+            return report.toString();
+        });
+        Platform.runLater(bench);
+        System.out.print(bench.get());
+        Platform.exit();
+    }
+}
@@ -0,0 +1,82 @@
+package model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.LocalDateTime;
+
+/**
+ * Compares the size and speed of a user snapshot written with Java
+ * serialization against the binary {@link UserCodec} format, for a library
+ * of 100,000 tagged photos spread over 50 albums.
+ * <p>
+ * It lives in the model package to reach the package-private codec:
+ * <pre>
+ * javac -cp out -d bench tools/bench/model/CodecBench.java
+ * java -cp out:bench model.CodecBench
+ * </pre>
+ */
+public class CodecBench {
+    private static final int PHOTOS = 100_000;
+    private static final int ALBUMS = 50;
+    private static final int ROUNDS = 12;
+
+    public static void main(String[] args) throws Exception {
+        User user = buildUser();
+        for (int round = 0; round < ROUNDS; round++) {
+            long t0 = System.nanoTime();
+            ByteArrayOutputStream java = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(java))) {
+                out.writeObject(user);
+                out.writeLong(1);
+            }
+            long t1 = System.nanoTime();
+            try (ObjectInputStream in = new ObjectInputStream(
+                    new BufferedInputStream(new ByteArrayInputStream(java.toByteArray())))) {
+                in.readObject();
+                in.readLong();
+            }
+            long t2 = System.nanoTime();
+            byte[] binary = UserCodec.write(user, 1);
+            long t3 = System.nanoTime();
+            UserCodec.read(binary);
+            long t4 = System.nanoTime();
+
+            System.out.printf("round %d: java %d bytes, write %.0f ms, read %.0f ms | binary %d bytes, write %.0f ms, read %.0f ms%n",
+                round, java.size(), (t1 - t0) / 1e6, (t2 - t1) / 1e6,
+                binary.length, (t3 - t2) / 1e6, (t4 - t3) / 1e6);
+        }
+    }
+
+    /**
+     * Builds a library shaped like a large real one: photos in a couple of
+     * hundred folders, a few people and places as tags, and some captions.
+     */
+    static User buildUser() {
+        String[] people = {"alice", "bob", "carol", "dave", "erin"};
+        String[] places = {"paris", "rome", "nyc", "tokyo"};
+        User user = new User("bench");
+        Album all = new Album("all");
+        user.addAlbum(all);
+        Album[] albums = new Album[ALBUMS];
+        for (int i = 0; i < ALBUMS; i++) {
+            albums[i] = new Album("album" + i);
+            user.addAlbum(albums[i]);
+        }
+
+        LocalDateTime start = LocalDateTime.of(2020, 1, 1, 0, 0);
+        for (int i = 0; i < PHOTOS; i++) {
+            Photo photo = new Photo("/home/user/Pictures/2024/trip" + (i % 200) + "/IMG_" + i + ".jpg",
+                start.plusMinutes(i * 7L));
+            photo.setCaption(i % 3 == 0 ? "photo " + i : "");
+            photo.addTag("person", people[i % people.length]);
+            photo.addTag("location", places[i % places.length]);
+            all.addPhoto(photo);
+            albums[i % ALBUMS].addPhoto(photo);
+        }
+        return user;
+    }
+}
@@ -0,0 +1,64 @@
+package model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reports how much heap a large library takes, both when it is built up one
+ * photo at a time as the application does and when it is read back from a
+ * snapshot. Every path and tag is a fresh string, as they are when they come
+ * from the UI or a journal, so sharing them is part of what is measured.
+ * <p>
+ * It lives in the model package to reach the package-private codec, and
+ * takes an optional label to print with the figures:
+ * <pre>
+ * javac -cp out -d bench tools/bench/model/HeapReport.java
+ * java -cp out:bench model.HeapReport [label]
+ * </pre>
+ */
+public class HeapReport {
+    private static final int PHOTOS = 200_000;
+
+    public static void main(String[] args) throws Exception {
+        String[] people = {"alice", "bob", "carol", "dave", "erin", "frank", "grace", "heidi"};
+        String[] places = {"paris", "rome", "new york", "tokyo", "berlin"};
+        String label = args.length > 0 ? args[0] : "heap";
+
+        long base = usedHeap();
+        User user = new User("heap");
+        Album all = new Album("all");
+        user.addAlbum(all);
+        LocalDateTime start = LocalDateTime.of(2020, 1, 1, 0, 0);
+        for (int i = 0; i < PHOTOS; i++) {
+            Photo photo = new Photo(new String("/home/someone/Pictures/Camera Roll/2024/Trip to somewhere "
+                + (i % 400) + "/IMG_" + i + ".jpg"), start.plusMinutes(i));
+            all.addPhoto(photo);
+            photo.addTag(new String("person"), new String(people[i % people.length]));
+            photo.addTag(new String("location"), new String(places[i % places.length]));
+        }
+        long built = usedHeap();
+        System.out.printf("%s: %.1f MB for %d photos (%.0f bytes/photo)%n",
+            label, (built - base) / 1e6, PHOTOS, (double) (built - base) / PHOTOS);
+
+        byte[] snapshot = UserCodec.write(user, 1);
+        user = null;
+        all = null;
+        long before = usedHeap();
+        User loaded = UserCodec.read(snapshot).user();
+        long after = usedHeap();
+        System.out.printf("  snapshot %.1f MB, loaded from snapshot: %.1f MB (%.0f bytes/photo)%n",
+            snapshot.length / 1e6, (after - before) / 1e6, (double) (after - before) / PHOTOS);
+        System.out.println("  albums: " + loaded.getAlbums().size()); // keeps the loaded user reachable
+    }
+
+    /**
+     * Gets the heap in use after letting the collector settle.
+     */
+    private static long usedHeap() throws InterruptedException {
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
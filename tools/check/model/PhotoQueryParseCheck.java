@@ -0,0 +1,69 @@
+package model;
+
+/**
+ * Checks that the query parser reads the ways people type tag terms,
+ * including with spaces around the =, the same as the compact form. Prints
+ * each case and exits with status 1 if any of them fails.
+ * <p>
+ * It lives in the model package to compare the parsed queries' normalized
+ * forms:
+ * <pre>
+ * javac -cp out -d check tools/check/model/PhotoQueryParseCheck.java
+ * java -cp out:check model.PhotoQueryParseCheck
+ * </pre>
+ */
+public class PhotoQueryParseCheck {
+    private static int failures;
+
+    public static void main(String[] args) {
+        same("person = bob", "person=bob");
+        same("person =bob", "person=bob");
+        same("person= bob", "person=bob");
+        same("location = New York", "location=New York");
+        same("location=New York person = bob", "location=New York AND person=bob");
+        same("person = bob AND location =paris", "person=bob AND location=paris");
+        same("NOT person = bob", "NOT person=bob");
+        same("(person = bob OR person= alice) date:2024-01-01", "(person=bob OR person=alice) AND date:2024-01-01");
+        same("\"person\" = bob", "person=bob");
+        same("person = \"New York\"", "person=\"New York\"");
+
+        rejects("person");
+        rejects("person =");
+        rejects("= bob");
+        rejects("person AND = bob");
+
+        if (failures > 0) {
+            System.out.println(failures + " failed");
+            System.exit(1);
+        }
+        System.out.println("all passed");
+    }
+
+    private static void same(String query, String expected) {
+        String actual;
+        try {
+            actual = PhotoQuery.parse(query).key();
+        } catch (IllegalArgumentException e) {
+            fail(query, "rejected: " + e.getMessage());
+            return;
+        }
+        if (actual.equals(PhotoQuery.parse(expected).key())) {
+            System.out.println("ok   " + query);
+        } else {
+            fail(query, "parsed as " + actual);
+        }
+    }
+
+    private static void rejects(String query) {
+        try {
+            fail(query, "accepted as " + PhotoQuery.parse(query).key());
+        } catch (IllegalArgumentException e) {
+            System.out.println("ok   " + query + " -> " + e.getMessage());
+        }
+    }
+
+    private static void fail(String query, String problem) {
+        failures++;
+        System.out.println("FAIL " + query + ": " + problem);
+    }
+}